@@ -0,0 +1,145 @@
+package com.d8gmyself.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 带截止时间的{@link CompletableFuture}组合
+ * <p>
+ * 组合结果完成后取消尚未完成的输入：尚未开始执行的任务不再执行，正在执行的任务不会被中断，其结果被忽略。
+ * 截止时间由定时线程触发，等待期间不占用任何线程
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class CompletableFutures {
+
+    private CompletableFutures() {
+    }
+
+    /**
+     * 全部成功时按输入顺序返回结果；任一失败或超时时立即失败并取消其余输入
+     *
+     * @param futures   输入
+     * @param timeout   超时时间
+     * @param unit      时间单位
+     * @param scheduler 触发超时的定时器
+     * @param <T>       结果类型
+     * @return 组合结果，超时时以{@link TimeoutException}失败
+     */
+    static <T> CompletableFuture<List<T>> allOf(Collection<? extends CompletableFuture<? extends T>> futures, long timeout, TimeUnit unit,
+                                                TimingWheelScheduler scheduler) {
+        List<CompletableFuture<? extends T>> inputs = new ArrayList<>(checkNotNull(futures));
+        checkDeadline(timeout, unit, scheduler);
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        if (inputs.isEmpty()) {
+            result.complete(new ArrayList<>());
+            return result;
+        }
+        AtomicInteger remaining = new AtomicInteger(inputs.size());
+        for (CompletableFuture<? extends T> future : inputs) {
+            future.whenComplete((value, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(unwrap(failure));
+                } else if (remaining.decrementAndGet() == 0) {
+                    List<T> values = new ArrayList<>(inputs.size());
+                    for (CompletableFuture<? extends T> input : inputs) {
+                        // 均已完成，不会阻塞
+                        values.add(input.join());
+                    }
+                    result.complete(values);
+                }
+            });
+        }
+        result.whenComplete((value, failure) -> {
+            if (failure != null) {
+                cancelAll(inputs);
+            }
+        });
+        withDeadline(result, timeout, unit, scheduler, inputs.size());
+        return result;
+    }
+
+    /**
+     * 返回最先成功的结果并取消其余输入；全部失败时以最后一个失败原因失败
+     *
+     * @param futures   输入，不能为空
+     * @param timeout   超时时间
+     * @param unit      时间单位
+     * @param scheduler 触发超时的定时器
+     * @param <T>       结果类型
+     * @return 组合结果，超时时以{@link TimeoutException}失败
+     */
+    static <T> CompletableFuture<T> anyOf(Collection<? extends CompletableFuture<? extends T>> futures, long timeout, TimeUnit unit,
+                                          TimingWheelScheduler scheduler) {
+        List<CompletableFuture<? extends T>> inputs = new ArrayList<>(checkNotNull(futures));
+        checkArgument(!inputs.isEmpty(), "futures不能为空");
+        checkDeadline(timeout, unit, scheduler);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(inputs.size());
+        for (CompletableFuture<? extends T> future : inputs) {
+            future.whenComplete((value, failure) -> {
+                if (failure == null) {
+                    result.complete(value);
+                } else if (remaining.decrementAndGet() == 0) {
+                    result.completeExceptionally(unwrap(failure));
+                }
+            });
+        }
+        result.whenComplete((value, failure) -> cancelAll(inputs));
+        withDeadline(result, timeout, unit, scheduler, inputs.size());
+        return result;
+    }
+
+    /**
+     * 在向输入注册回调之前校验，参数非法时不会在输入上留下回调
+     */
+    private static void checkDeadline(long timeout, TimeUnit unit, TimingWheelScheduler scheduler) {
+        checkArgument(timeout > 0, "timeout必须大于0");
+        checkNotNull(unit, "unit不能为空");
+        checkNotNull(scheduler, "scheduler不能为空");
+    }
+
+    private static void withDeadline(CompletableFuture<?> result, long timeout, TimeUnit unit, TimingWheelScheduler scheduler, int size) {
+        if (result.isDone()) {
+            return;
+        }
+        TimingWheelScheduler.Timer timer;
+        try {
+            timer = scheduler.schedule(() -> {
+                result.completeExceptionally(new TimeoutException("not completed in " + timeout + " " + unit + ", futures:" + size));
+            }, timeout, unit);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((value, failure) -> timer.cancel());
+    }
+
+    private static void cancelAll(Collection<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (!future.isDone()) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        if ((failure instanceof CompletionException || failure instanceof ExecutionException) && failure.getCause() != null) {
+            return failure.getCause();
+        }
+        return failure;
+    }
+
+}
@@ -2,7 +2,6 @@ package com.d8gmyself.concurrency;
 
 import com.google.common.annotations.Beta;
 import com.google.common.cache.Cache;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
@@ -16,13 +15,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.ServiceLoader;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -43,12 +43,39 @@ public class ExecuteUtils {
     private static final int MIN_RETRY_TIMES = 0;
     private static final int MAX_RETRY_TIMES = 5;
 
-    private static final String DEFAULT_THREAD_POOL_NAME_PREFIX = "ExecuteUtils-DEFAULT-";
+    private static final String DEFAULT_THREAD_POOL_NAME_PREFIX = ThreadPoolRegistry.THREAD_NAME_PREFIX + ThreadPoolRegistry.DEFAULT_POOL + "-";
     private static final String DEFAULT_SCHEDULED_THREAD_POOL_NAME_PREFIX = "ExecuteUtils-DELAY-";
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "ExecuteUtils-VIRTUAL-";
+    private static final String FORK_JOIN_THREAD_NAME_PREFIX = "ExecuteUtils-FORKJOIN-";
+
+    /**
+     * 默认线程池模式，可选platform（默认，固定大小的平台线程池）、virtual（每个任务一个虚拟线程，需要Java 21及以上）
+     * 和forkjoin（ForkJoinPool，允许在异步任务中嵌套调用parallelInvokeAll）
+     */
+    private static final String EXECUTE_MODE_PROPERTY = "d8gmyself.execute.mode";
+    private static final String VIRTUAL_EXECUTE_MODE = "virtual";
+    private static final String FORK_JOIN_EXECUTE_MODE = "forkjoin";
+    /**
+     * forkjoin模式的并行度，默认32，与platform模式的核心线程数一致
+     */
+    private static final String FORK_JOIN_PARALLELISM_PROPERTY = "d8gmyself.execute.forkjoin.parallelism";
+    private static final int DEFAULT_FORK_JOIN_PARALLELISM = 32;
+    /**
+     * 延迟执行和周期调度的定时精度（毫秒），默认1，到期后最多延迟一个tick执行
+     */
+    private static final String TIMER_TICK_MILLIS_PROPERTY = "d8gmyself.execute.timer.tickMillis";
+    private static final int DEFAULT_TIMER_TICK_MILLIS = 1;
+    /**
+     * 执行到期任务的线程数，默认32
+     */
+    private static final String TIMER_WORKER_THREADS_PROPERTY = "d8gmyself.execute.timer.workerThreads";
+    private static final int DEFAULT_TIMER_WORKER_THREADS = 32;
+
+    private static final ThreadPoolRegistry THREAD_POOLS = new ThreadPoolRegistry();
 
     private static final ExecutorService DEFAULT_EXECUTE_SERVICE;
 
-    private static final ScheduledThreadPoolExecutor DELAY_EXECUTE_SERVICE;
+    private static final TimingWheelScheduler DELAY_EXECUTE_SERVICE;
 
     private static ExecuteContextSPI executeContextSPI;
 
@@ -58,20 +85,11 @@ public class ExecuteUtils {
             executeContextSPI = new ExecuteContextSPI() {
             };
         }
-        //线程池配置可以从配置或者启动参数中获取，暂时写死
-        DEFAULT_EXECUTE_SERVICE = new ThreadPoolExecutor(
-                32,
-                64,
-                5,
-                TimeUnit.MINUTES,
-                new ArrayBlockingQueue<>(8192),
-                new ThreadFactoryBuilder().setNameFormat(DEFAULT_THREAD_POOL_NAME_PREFIX + "%d").build(),
-                new ThreadPoolExecutor.CallerRunsPolicy()
-        );
-        DELAY_EXECUTE_SERVICE = new ScheduledThreadPoolExecutor(
-                32,
-                new ThreadFactoryBuilder().setNameFormat(DEFAULT_SCHEDULED_THREAD_POOL_NAME_PREFIX + "%d").build(),
-                new ThreadPoolExecutor.CallerRunsPolicy()
+        DEFAULT_EXECUTE_SERVICE = createDefaultExecuteService();
+        DELAY_EXECUTE_SERVICE = new TimingWheelScheduler(
+                DEFAULT_SCHEDULED_THREAD_POOL_NAME_PREFIX,
+                TimeUnit.MILLISECONDS.toNanos(Math.max(1, NumberUtils.toInt(System.getProperty(TIMER_TICK_MILLIS_PROPERTY), DEFAULT_TIMER_TICK_MILLIS))),
+                Math.max(1, NumberUtils.toInt(System.getProperty(TIMER_WORKER_THREADS_PROPERTY), DEFAULT_TIMER_WORKER_THREADS))
         );
     }
 
@@ -79,6 +97,93 @@ public class ExecuteUtils {
 
     }
 
+    private static ExecutorService createDefaultExecuteService() {
+        if (FORK_JOIN_EXECUTE_MODE.equalsIgnoreCase(System.getProperty(EXECUTE_MODE_PROPERTY))) {
+            //线程名不使用DEFAULT_THREAD_POOL_NAME_PREFIX，嵌套的批量执行由等待的线程帮助执行子任务，不会死锁
+            int parallelism = NumberUtils.toInt(System.getProperty(FORK_JOIN_PARALLELISM_PROPERTY), DEFAULT_FORK_JOIN_PARALLELISM);
+            ExecutorService executor = ForkJoinInvoker.newPool(FORK_JOIN_THREAD_NAME_PREFIX, Math.max(1, parallelism));
+            THREAD_POOLS.register(ThreadPoolRegistry.DEFAULT_POOL, executor);
+            return executor;
+        }
+        if (VIRTUAL_EXECUTE_MODE.equalsIgnoreCase(System.getProperty(EXECUTE_MODE_PROPERTY))) {
+            if (VirtualThreads.isSupported()) {
+                //虚拟线程不受线程数限制，其名称不使用DEFAULT_THREAD_POOL_NAME_PREFIX，因此允许在异步任务中再次提交任务
+                ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor(VIRTUAL_THREAD_NAME_PREFIX);
+                THREAD_POOLS.register(ThreadPoolRegistry.DEFAULT_POOL, executor);
+                return executor;
+            }
+            LOGGER.warn("{}=virtual requires Java 21+, fall back to platform thread pool", EXECUTE_MODE_PROPERTY);
+        }
+        //默认32核心线程、64最大线程、8192队列，可通过d8gmyself.pool.DEFAULT.*配置，参见ThreadPoolRegistry
+        return THREAD_POOLS.get(ThreadPoolRegistry.DEFAULT_POOL);
+    }
+
+    /**
+     * 获取命名线程池，首次使用时按配置创建
+     * <p>
+     * 线程池通过{@code d8gmyself.pool.<name>.coreSize|maxSize|queueCapacity|keepAliveSeconds}配置，
+     * 配置来源为{@code d8gmyself.pool.config}指定的properties文件、classpath下的d8gmyself-pool.properties以及系统属性（优先）；
+     * 默认线程池名称为{@code DEFAULT}，未配置时为32核心线程、64最大线程、8192队列
+     * </p>
+     *
+     * @param poolName 线程池名称
+     * @return 线程池
+     * @throws IllegalArgumentException 未配置该线程池
+     */
+    public static ExecutorService getThreadPool(String poolName) {
+        return THREAD_POOLS.get(poolName);
+    }
+
+    /**
+     * 运行时调整命名线程池的线程数和队列容量，不影响正在执行和已在队列中的任务
+     *
+     * @param poolName      线程池名称
+     * @param coreSize      核心线程数
+     * @param maxSize       最大线程数，不小于核心线程数
+     * @param queueCapacity 队列容量
+     * @throws IllegalArgumentException 参数无效或未配置该线程池
+     * @throws IllegalStateException    线程池不支持调整（如虚拟线程模式下的默认线程池）
+     */
+    public static void resizeThreadPool(String poolName, int coreSize, int maxSize, int queueCapacity) {
+        THREAD_POOLS.resize(poolName, coreSize, maxSize, queueCapacity);
+    }
+
+    /**
+     * 重新读取线程池配置，已创建的线程池按新配置调整大小，调用{@link #resizeThreadPool(String, int, int, int)}的调整会被覆盖
+     */
+    public static void reloadThreadPoolConfig() {
+        THREAD_POOLS.reload();
+    }
+
+    /**
+     * 获取命名线程池的统计：排队等待和执行耗时、调用方执行次数、活跃线程数、队列长度等
+     *
+     * @param poolName 线程池名称
+     * @return 线程池不支持统计（如虚拟线程模式下的默认线程池）时为空
+     * @throws IllegalArgumentException 未配置该线程池
+     */
+    public static Optional<ThreadPoolMetrics> getThreadPoolMetrics(String poolName) {
+        return THREAD_POOLS.metrics(poolName);
+    }
+
+    /**
+     * 获取所有已创建的命名线程池的统计
+     *
+     * @return key为线程池名称
+     */
+    public static Map<String, ThreadPoolMetrics> getThreadPoolMetrics() {
+        return THREAD_POOLS.allMetrics();
+    }
+
+    /**
+     * 获取已配置的线程池名称
+     *
+     * @return 线程池名称
+     */
+    public static Set<String> getThreadPoolNames() {
+        return THREAD_POOLS.names();
+    }
+
     private static void loadInitialTraceContextSPI() {
         AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
             ServiceLoader<ExecuteContextSPI> traceContextSPILoader = ServiceLoader.load(ExecuteContextSPI.class);
@@ -244,6 +349,27 @@ public class ExecuteUtils {
         asyncExecute(command, DEFAULT_EXECUTE_SERVICE);
     }
 
+    /**
+     * 异步执行，使用命名线程池
+     *
+     * @param command          要执行的command
+     * @param poolName         线程池名称，参见{@link #getThreadPool(String)}
+     * @param exceptionHandler 异常处理
+     */
+    public static void asyncExecute(Runnable command, String poolName, Consumer<Throwable> exceptionHandler) {
+        asyncExecute(command, THREAD_POOLS.get(poolName), exceptionHandler);
+    }
+
+    /**
+     * 异步执行，使用命名线程池
+     *
+     * @param command  要执行的command
+     * @param poolName 线程池名称，参见{@link #getThreadPool(String)}
+     */
+    public static void asyncExecute(Runnable command, String poolName) {
+        asyncExecute(command, poolName, null);
+    }
+
     /**
      * 异步执行，会自动处理EagleEye逻辑
      *
@@ -263,17 +389,144 @@ public class ExecuteUtils {
      */
     public static Future<?> asyncSubmit(Runnable task) {
         //异步执行的过程中禁止向线程中再次提交任务，防止死锁
-        if (Thread.currentThread().getName().startsWith(DEFAULT_THREAD_POOL_NAME_PREFIX)) {
-            throw new UnsupportedOperationException("forbid submit async task in async task");
-        }
+        checkNotInPool(DEFAULT_THREAD_POOL_NAME_PREFIX);
         return asyncSubmit(task, DEFAULT_EXECUTE_SERVICE);
     }
 
+    /**
+     * 异步执行，使用命名线程池，禁止在同一线程池的任务中再次提交
+     *
+     * @param task     要执行的task
+     * @param poolName 线程池名称，参见{@link #getThreadPool(String)}
+     * @return Future
+     */
+    public static Future<?> asyncSubmit(Runnable task, String poolName) {
+        ExecutorService pool = THREAD_POOLS.get(poolName);
+        checkNotInPool(ThreadPoolRegistry.THREAD_NAME_PREFIX + poolName + "-");
+        return asyncSubmit(task, pool);
+    }
+
+    /**
+     * 异步执行，使用默认线程池，返回{@link CompletableFuture}，会自动透传context
+     * <p>
+     * 通过{@link CompletableFuture}的then*方法组合时不需要阻塞等待；
+     * 非async的后续阶段在完成该任务的线程中执行，其中不再透传context
+     * </p>
+     *
+     * @param supplier 要执行的内容
+     * @param <T>      返回值类型
+     * @return CompletableFuture
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return supplyAsync(supplier, DEFAULT_EXECUTE_SERVICE);
+    }
+
+    /**
+     * 异步执行，使用命名线程池，返回{@link CompletableFuture}，会自动透传context
+     *
+     * @param supplier 要执行的内容
+     * @param poolName 线程池名称，参见{@link #getThreadPool(String)}
+     * @param <T>      返回值类型
+     * @return CompletableFuture
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, String poolName) {
+        return supplyAsync(supplier, THREAD_POOLS.get(poolName));
+    }
+
+    /**
+     * 异步执行，返回{@link CompletableFuture}，会自动透传context
+     *
+     * @param supplier        要执行的内容
+     * @param executorService 线程池
+     * @param <T>             返回值类型
+     * @return CompletableFuture，线程池拒绝时以{@link java.util.concurrent.RejectedExecutionException}失败
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, ExecutorService executorService) {
+        try {
+            return CompletableFuture.supplyAsync(new ContextSupplier<>(supplier), executorService);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    /**
+     * 异步执行，使用默认线程池，返回{@link CompletableFuture}，会自动透传context
+     *
+     * @param command 要执行的内容
+     * @return CompletableFuture
+     */
+    public static CompletableFuture<Void> runAsync(Runnable command) {
+        return runAsync(command, DEFAULT_EXECUTE_SERVICE);
+    }
+
+    /**
+     * 异步执行，使用命名线程池，返回{@link CompletableFuture}，会自动透传context
+     *
+     * @param command  要执行的内容
+     * @param poolName 线程池名称，参见{@link #getThreadPool(String)}
+     * @return CompletableFuture
+     */
+    public static CompletableFuture<Void> runAsync(Runnable command, String poolName) {
+        return runAsync(command, THREAD_POOLS.get(poolName));
+    }
+
+    /**
+     * 异步执行，返回{@link CompletableFuture}，会自动透传context
+     *
+     * @param command         要执行的内容
+     * @param executorService 线程池
+     * @return CompletableFuture，线程池拒绝时以{@link java.util.concurrent.RejectedExecutionException}失败
+     */
+    public static CompletableFuture<Void> runAsync(Runnable command, ExecutorService executorService) {
+        try {
+            return CompletableFuture.runAsync(new ContextRunnable(command), executorService);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    /**
+     * 等待全部完成，不阻塞任何线程
+     * <p>
+     * 全部成功时按输入顺序返回结果；任一失败或超过截止时间时立即失败，并取消其余未完成的任务：
+     * 尚未开始执行的任务不再执行，正在执行的任务不会被中断
+     * </p>
+     *
+     * @param futures 要等待的任务
+     * @param timeout 截止时间，从调用时开始计算
+     * @param unit    时间单位
+     * @param <T>     返回值类型
+     * @return 组合结果，超时时以{@link java.util.concurrent.TimeoutException}失败
+     */
+    public static <T> CompletableFuture<List<T>> allOf(Collection<? extends CompletableFuture<? extends T>> futures, long timeout, TimeUnit unit) {
+        return CompletableFutures.allOf(futures, timeout, unit, DELAY_EXECUTE_SERVICE);
+    }
+
+    /**
+     * 返回最先成功的结果，不阻塞任何线程
+     * <p>
+     * 有结果后取消其余未完成的任务；全部失败时以最后一个失败原因失败，超过截止时间时以{@link java.util.concurrent.TimeoutException}失败
+     * </p>
+     *
+     * @param futures 要等待的任务，不能为空
+     * @param timeout 截止时间，从调用时开始计算
+     * @param unit    时间单位
+     * @param <T>     返回值类型
+     * @return 组合结果
+     */
+    public static <T> CompletableFuture<T> anyOf(Collection<? extends CompletableFuture<? extends T>> futures, long timeout, TimeUnit unit) {
+        return CompletableFutures.anyOf(futures, timeout, unit, DELAY_EXECUTE_SERVICE);
+    }
+
     /**
      * 延迟执行command
      * <p>
-     * 注意：默认采用的ScheduledThreadPoolExecutor方式，
-     * ScheduledThreadPoolExecutor为无界队列，要在入口处预估好量或者做限流
+     * 基于分层时间轮，加入和取消都是O(1)，定时精度由{@code d8gmyself.execute.timer.tickMillis}配置（默认1毫秒）；
+     * 到期的任务在{@code d8gmyself.execute.timer.workerThreads}个工作线程（默认32）中执行，工作线程的队列无界，要在入口处预估好量或者做限流
      * </p>
      *
      * @param command          要执行的command
@@ -282,14 +535,18 @@ public class ExecuteUtils {
      * @param exceptionHandler 异常处理逻辑
      */
     public static void delayExecute(Runnable command, int delayTime, TimeUnit delayTimeUnit, Consumer<Throwable> exceptionHandler) {
-        DELAY_EXECUTE_SERVICE.schedule(new ContextRunnable(command, exceptionHandler), delayTime, delayTimeUnit);
+        try {
+            DELAY_EXECUTE_SERVICE.schedule(new ContextRunnable(command, exceptionHandler), delayTime, delayTimeUnit);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("DELAY_EXECUTE_SERVICE has been shutdown, command discarded: {}", command);
+        }
     }
 
     /**
      * 周期调度
      * <p>
-     * 注意：默认采用的ScheduledThreadPoolExecutor方式，
-     * ScheduledThreadPoolExecutor为无界队列，要在入口处预估好量或者做限流
+     * 基于分层时间轮，参见{@link #delayExecute(Runnable, int, TimeUnit, Consumer)}；
+     * 前一次执行完成前不会开始下一次，未设置exceptionHandler时任务抛出异常后不再执行
      * </p>
      *
      * @param command          要执行的command
@@ -301,14 +558,18 @@ public class ExecuteUtils {
     public static void scheduleAtFixedRate(Runnable command, long initialDelay,
                                            long period,
                                            TimeUnit timeUnit, Consumer<Throwable> exceptionHandler) {
-        DELAY_EXECUTE_SERVICE.scheduleAtFixedRate(new ContextRunnable(command, exceptionHandler), initialDelay, period, timeUnit);
+        try {
+            DELAY_EXECUTE_SERVICE.scheduleAtFixedRate(new ContextRunnable(command, exceptionHandler), initialDelay, period, timeUnit);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("DELAY_EXECUTE_SERVICE has been shutdown, command discarded: {}", command);
+        }
     }
 
     /**
      * 周期调度
      * <p>
-     * 注意：默认采用的ScheduledThreadPoolExecutor方式，
-     * ScheduledThreadPoolExecutor为无界队列，要在入口处预估好量或者做限流
+     * 基于分层时间轮，参见{@link #delayExecute(Runnable, int, TimeUnit, Consumer)}；
+     * 前一次执行完成前不会开始下一次，未设置exceptionHandler时任务抛出异常后不再执行
      * </p>
      *
      * @param command          要执行的command
@@ -320,7 +581,11 @@ public class ExecuteUtils {
     public static void scheduleWithFixedDelay(Runnable command, long initialDelay,
                                               long delay,
                                               TimeUnit timeUnit, Consumer<Throwable> exceptionHandler) {
-        DELAY_EXECUTE_SERVICE.scheduleWithFixedDelay(new ContextRunnable(command, exceptionHandler), initialDelay, delay, timeUnit);
+        try {
+            DELAY_EXECUTE_SERVICE.scheduleWithFixedDelay(new ContextRunnable(command, exceptionHandler), initialDelay, delay, timeUnit);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("DELAY_EXECUTE_SERVICE has been shutdown, command discarded: {}", command);
+        }
     }
 
     /**
@@ -332,11 +597,7 @@ public class ExecuteUtils {
      * @throws InterruptedException exp
      */
     public static <T> List<? extends Future<T>> parallelInvokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
-        if (Thread.currentThread().getName().startsWith(DEFAULT_THREAD_POOL_NAME_PREFIX)) {
-            throw new UnsupportedOperationException("forbid submit async task in async task");
-        }
-        List<ContextCallable<T>> wrappedTasks = tasks.stream().map(ContextCallable::new).collect(Collectors.toList());
-        return DEFAULT_EXECUTE_SERVICE.invokeAll(wrappedTasks);
+        return parallelInvokeAll(tasks, null);
     }
 
     /**
@@ -348,26 +609,76 @@ public class ExecuteUtils {
      * @throws InterruptedException exp
      */
     public static <T> List<? extends Future<T>> parallelInvokeAll(Collection<? extends Callable<T>> tasks, Consumer<Throwable> exceptionHandler) throws InterruptedException {
-        if (Thread.currentThread().getName().startsWith(DEFAULT_THREAD_POOL_NAME_PREFIX)) {
+        checkNotInPool(DEFAULT_THREAD_POOL_NAME_PREFIX);
+        List<ContextCallable<T>> wrappedTasks = tasks.stream().map(call -> new ContextCallable<>(call, exceptionHandler)).collect(Collectors.toList());
+        return invokeAll(DEFAULT_EXECUTE_SERVICE, wrappedTasks);
+    }
+
+    /**
+     * 批量异步执行，使用命名线程池，并获取执行结果，禁止在同一线程池的任务中调用
+     *
+     * @param poolName 线程池名称，参见{@link #getThreadPool(String)}
+     * @param tasks    要批量执行的任务
+     * @param <T>      任务返回值类型
+     * @return 执行结果
+     * @throws InterruptedException exp
+     */
+    public static <T> List<? extends Future<T>> parallelInvokeAll(String poolName, Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return parallelInvokeAll(poolName, tasks, null);
+    }
+
+    /**
+     * 批量异步执行，使用命名线程池，并获取执行结果，禁止在同一线程池的任务中调用
+     *
+     * @param poolName         线程池名称，参见{@link #getThreadPool(String)}
+     * @param tasks            要批量执行的任务
+     * @param exceptionHandler 异常处理，不为null时发生异常的任务结果为null
+     * @param <T>              任务返回值类型
+     * @return 执行结果
+     * @throws InterruptedException exp
+     */
+    public static <T> List<? extends Future<T>> parallelInvokeAll(String poolName, Collection<? extends Callable<T>> tasks,
+                                                                  Consumer<Throwable> exceptionHandler) throws InterruptedException {
+        ExecutorService pool = THREAD_POOLS.get(poolName);
+        checkNotInPool(ThreadPoolRegistry.THREAD_NAME_PREFIX + poolName + "-");
+        List<ContextCallable<T>> wrappedTasks = tasks.stream().map(call -> new ContextCallable<>(call, exceptionHandler)).collect(Collectors.toList());
+        return invokeAll(pool, wrappedTasks);
+    }
+
+    /**
+     * 批量执行，ForkJoinPool由等待的线程帮助执行子任务，允许嵌套调用；其余线程池使用{@link ExecutorService#invokeAll(Collection)}
+     */
+    private static <T> List<? extends Future<T>> invokeAll(ExecutorService pool, List<ContextCallable<T>> tasks) throws InterruptedException {
+        if (pool instanceof ForkJoinPool) {
+            return ForkJoinInvoker.invokeAll((ForkJoinPool) pool, tasks);
+        }
+        return pool.invokeAll(tasks);
+    }
+
+    /**
+     * 禁止在线程池的任务中再次向同一线程池提交并等待，防止线程耗尽导致死锁
+     *
+     * @param threadNamePrefix 线程池的线程名前缀
+     */
+    private static void checkNotInPool(String threadNamePrefix) {
+        if (Thread.currentThread().getName().startsWith(threadNamePrefix)) {
             throw new UnsupportedOperationException("forbid submit async task in async task");
         }
-        List<ContextCallable<T>> wrappedTasks = tasks.stream().map(call -> new ContextCallable<>(call, exceptionHandler)).collect(Collectors.toList());
-        return DEFAULT_EXECUTE_SERVICE.invokeAll(wrappedTasks);
     }
 
 
     public static <T> List<? extends Future<T>> parallelInvokeAllWithThreadPool(final ExecutorService threadPool, Collection<? extends Callable<T>> tasks) throws InterruptedException {
         List<ContextCallable<T>> wrappedTasks = tasks.stream().map(ContextCallable::new).collect(Collectors.toList());
-        return threadPool.invokeAll(wrappedTasks);
+        return invokeAll(threadPool, wrappedTasks);
     }
 
     /**
      * 销毁
      */
     public static void destory() {
-        executeIngoreException(DEFAULT_EXECUTE_SERVICE::shutdown);
+        executeIngoreException(THREAD_POOLS::shutdown);
         executeIngoreException(DELAY_EXECUTE_SERVICE::shutdown);
-        LOGGER.warn("ExecuteUtils DEFAULT_EXECUTE_SERVICE and DELAY_EXECUTE_SERVICE shutdown...");
+        LOGGER.warn("ExecuteUtils thread pools and DELAY_EXECUTE_SERVICE shutdown...");
     }
 
     /**
@@ -447,6 +758,31 @@ public class ExecuteUtils {
         }
     }
 
+    /**
+     * Supplier，可以自动透传context
+     */
+    private static class ContextSupplier<T> implements Supplier<T> {
+        private final Supplier<T> originalSupplier;
+        private final Thread originalThread = Thread.currentThread();
+        private final Map<String, Object> executeContext = executeContextSPI.getContext();
+
+        public ContextSupplier(Supplier<T> originalSupplier) {
+            this.originalSupplier = originalSupplier;
+        }
+
+        @Override
+        public T get() {
+            try {
+                executeContextSPI.setContext(executeContext);
+                return originalSupplier.get();
+            } finally {
+                if (Thread.currentThread() != originalThread) {
+                    executeContextSPI.clearContext(executeContext);
+                }
+            }
+        }
+    }
+
     /**
      * Callable，带重试
      */
@@ -0,0 +1,143 @@
+package com.d8gmyself.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+/**
+ * 基于ForkJoinPool的批量执行
+ * <p>
+ * 在同一个ForkJoinPool的工作线程中调用时，子任务放入当前线程的本地队列，等待时当前线程先执行尚未被窃取的子任务，
+ * 并帮助执行窃取者的任务，不会因为线程全部在等待子任务而死锁，因此允许任意层级的嵌套并行；
+ * 在其他线程中调用时提交到线程池并阻塞等待，可被中断
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class ForkJoinInvoker {
+
+    private ForkJoinInvoker() {
+    }
+
+    /**
+     * 创建ForkJoinPool，工作线程名为前缀加序号
+     *
+     * @param threadNamePrefix 线程名前缀
+     * @param parallelism      并行度
+     * @return ForkJoinPool
+     */
+    static ForkJoinPool newPool(String threadNamePrefix, int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(threadNamePrefix + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 执行全部任务并等待完成，语义同{@link java.util.concurrent.ExecutorService#invokeAll(Collection)}
+     *
+     * @param pool  线程池
+     * @param tasks 任务
+     * @param <T>   返回值类型
+     * @return 已完成的结果，顺序与输入一致，任务抛出的异常原样包装在{@link ExecutionException}中
+     * @throws InterruptedException 非工作线程等待时被中断，此时未完成的任务被取消
+     */
+    static <T> List<Future<T>> invokeAll(ForkJoinPool pool, Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        List<CallableTask<T>> forkJoinTasks = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            forkJoinTasks.add(new CallableTask<>(task));
+        }
+        Thread current = Thread.currentThread();
+        if (current instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) current).getPool() == pool) {
+            for (CallableTask<T> task : forkJoinTasks) {
+                task.fork();
+            }
+            // 逆序等待，最后fork的任务最可能仍在本地队列顶部，可直接在当前线程执行
+            for (int i = forkJoinTasks.size() - 1; i >= 0; i--) {
+                forkJoinTasks.get(i).quietlyJoin();
+            }
+        } else {
+            for (CallableTask<T> task : forkJoinTasks) {
+                pool.execute(task);
+            }
+            try {
+                for (CallableTask<T> task : forkJoinTasks) {
+                    task.get();
+                }
+            } catch (InterruptedException e) {
+                for (CallableTask<T> task : forkJoinTasks) {
+                    task.cancel(false);
+                }
+                throw e;
+            } catch (ExecutionException | CancellationException e) {
+                // 任务自身的异常保存在failure中，不会走到这里
+                throw new IllegalStateException(e);
+            }
+        }
+        List<Future<T>> results = new ArrayList<>(forkJoinTasks.size());
+        for (CallableTask<T> task : forkJoinTasks) {
+            results.add(task.toFuture());
+        }
+        return results;
+    }
+
+    /**
+     * 执行Callable的ForkJoinTask，异常单独保存，不经过ForkJoinTask的异常机制
+     * （{@link ForkJoinTask#completeExceptionally(Throwable)}会把受检异常包装为RuntimeException）
+     */
+    private static final class CallableTask<T> extends ForkJoinTask<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Callable<T> callable;
+        private T result;
+        private Throwable failure;
+
+        private CallableTask(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public T getRawResult() {
+            return result;
+        }
+
+        @Override
+        protected void setRawResult(T value) {
+            this.result = value;
+        }
+
+        @Override
+        protected boolean exec() {
+            try {
+                result = callable.call();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            return true;
+        }
+
+        /**
+         * 只在任务完成后调用
+         */
+        private Future<T> toFuture() {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+            return future;
+        }
+    }
+
+}
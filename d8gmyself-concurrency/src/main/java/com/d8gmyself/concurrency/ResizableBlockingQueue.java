@@ -0,0 +1,82 @@
+package com.d8gmyself.concurrency;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 容量可在运行时调整的阻塞队列，用作{@link java.util.concurrent.ThreadPoolExecutor}的任务队列
+ * <p>
+ * {@link java.util.concurrent.ThreadPoolExecutor}只通过{@link #offer(Object)}提交任务，容量检查只读取volatile的容量和
+ * {@link LinkedBlockingQueue}自身的计数，不额外加锁，提交线程之间只在入队锁上竞争；
+ * 检查和入队不是原子的，并发提交时队列长度可能短暂超出容量，超出量不超过同时提交的线程数。
+ * 缩小容量时已在队列中的任务不受影响，直到队列长度降到新容量以下才接受新任务。
+ * 阻塞的{@link #put(Object)}和带超时的{@link #offer(Object, long, TimeUnit)}以短暂挂起的方式等待空位，只用于兼容。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class ResizableBlockingQueue<E> extends LinkedBlockingQueue<E> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private volatile int capacity;
+
+    ResizableBlockingQueue(int capacity) {
+        setCapacity(capacity);
+    }
+
+    void setCapacity(int capacity) {
+        checkArgument(capacity > 0, "queueCapacity必须大于0");
+        this.capacity = capacity;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (size() >= capacity) {
+            return false;
+        }
+        return super.offer(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offer(e)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            park(Math.min(remaining, WAIT_NANOS));
+        }
+        return true;
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        while (!offer(e)) {
+            park(WAIT_NANOS);
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+
+    private static void park(long nanos) throws InterruptedException {
+        LockSupport.parkNanos(nanos);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+}
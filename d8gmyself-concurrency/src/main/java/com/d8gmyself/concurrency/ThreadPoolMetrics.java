@@ -0,0 +1,179 @@
+package com.d8gmyself.concurrency;
+
+import com.d8gmyself.concurrency.metrics.HistogramSnapshot;
+import com.d8gmyself.concurrency.metrics.LatencyHistogram;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 命名线程池的统计，通过{@link ExecuteUtils#getThreadPoolMetrics(String)}获取
+ * <p>
+ * 计数都是单调递增的累计值，速率由上报方按采集间隔计算；线程数、队列长度等为读取时的瞬时值
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class ThreadPoolMetrics {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+
+    ThreadPoolMetrics(String name, ThreadPoolExecutor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    void recordSubmit() {
+        submitted.increment();
+    }
+
+    void recordQueueWait(long waitNanos) {
+        queueWait.record(waitNanos);
+    }
+
+    void recordExecution(long executionNanos, boolean failure) {
+        executionTime.record(executionNanos);
+        completed.increment();
+        if (failure) {
+            failed.increment();
+        }
+    }
+
+    void recordCallerRuns() {
+        callerRuns.increment();
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * @return 线程池名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 提交的任务数
+     */
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    /**
+     * @return 执行完成的任务数（包括抛出异常的任务和在调用方线程执行的任务）
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * @return 抛出异常的任务数，通过submit提交的任务异常保存在Future中，不计入
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return 线程和队列都已满，由提交任务的线程自己执行的任务数
+     */
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * @return 线程池关闭后提交而被丢弃的任务数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return 任务从提交到开始执行的等待时间，不包括在调用方线程执行的任务
+     */
+    public HistogramSnapshot getQueueWait() {
+        return queueWait.snapshot();
+    }
+
+    /**
+     * @return 任务执行耗时
+     */
+    public HistogramSnapshot getExecutionTime() {
+        return executionTime.snapshot();
+    }
+
+    /**
+     * @return 正在执行任务的线程数（近似值）
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return 当前线程数
+     */
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * @return 历史最大线程数
+     */
+    public int getLargestPoolSize() {
+        return executor.getLargestPoolSize();
+    }
+
+    /**
+     * @return 核心线程数
+     */
+    public int getCorePoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * @return 最大线程数
+     */
+    public int getMaximumPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return 队列中等待执行的任务数
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return 队列剩余容量
+     */
+    public int getQueueRemainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadPoolMetrics{" +
+                "name='" + name + '\'' +
+                ", submitted=" + getSubmittedCount() +
+                ", completed=" + getCompletedCount() +
+                ", failed=" + getFailedCount() +
+                ", callerRuns=" + getCallerRunsCount() +
+                ", rejected=" + getRejectedCount() +
+                ", active=" + getActiveCount() +
+                ", poolSize=" + getPoolSize() +
+                ", queueSize=" + getQueueSize() +
+                ", queueWait=" + getQueueWait() +
+                ", executionTime=" + getExecutionTime() +
+                '}';
+    }
+}
@@ -0,0 +1,317 @@
+package com.d8gmyself.concurrency;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 命名线程池注册表，不同业务使用各自的线程池相互隔离
+ * <p>
+ * 线程池由配置定义，配置项为{@code d8gmyself.pool.<name>.coreSize|maxSize|queueCapacity|keepAliveSeconds}，
+ * 来源依次为：{@code d8gmyself.pool.config}指定的properties文件（未指定时为classpath下的{@value #CONFIG_RESOURCE}）、系统属性，后者覆盖前者。
+ * 线程池在首次使用时创建，运行中可通过{@link #resize(String, int, int, int)}或{@link #reload()}调整线程数和队列容量，无需重启。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class ThreadPoolRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadPoolRegistry.class);
+
+    /**
+     * 默认线程池名称
+     */
+    static final String DEFAULT_POOL = "DEFAULT";
+    static final String THREAD_NAME_PREFIX = "ExecuteUtils-";
+
+    private static final String PROPERTY_PREFIX = "d8gmyself.pool.";
+    private static final String CONFIG_FILE_PROPERTY = "d8gmyself.pool.config";
+    private static final String CONFIG_RESOURCE = "d8gmyself-pool.properties";
+    private static final String CORE_SIZE = "coreSize";
+    private static final String MAX_SIZE = "maxSize";
+    private static final String QUEUE_CAPACITY = "queueCapacity";
+    private static final String KEEP_ALIVE_SECONDS = "keepAliveSeconds";
+
+    /**
+     * 默认线程池未配置时的参数
+     */
+    private static final PoolConfig DEFAULT_POOL_CONFIG = new PoolConfig(32, 64, 8192, 300);
+
+    private final Map<String, ExecutorService> pools = new ConcurrentHashMap<>();
+    private volatile Map<String, PoolConfig> configs;
+
+    ThreadPoolRegistry() {
+        this.configs = loadConfigs();
+    }
+
+    /**
+     * 获取线程池，首次使用时按配置创建
+     *
+     * @param name 线程池名称
+     * @return 线程池
+     * @throws IllegalArgumentException 未配置该线程池
+     */
+    ExecutorService get(String name) {
+        ExecutorService pool = pools.get(name);
+        if (pool != null) {
+            return pool;
+        }
+        return pools.computeIfAbsent(name, key -> {
+            PoolConfig config = configOf(key);
+            checkArgument(config != null, "未配置的线程池: %s，需要配置%s%s.%s等", key, PROPERTY_PREFIX, key, CORE_SIZE);
+            LOGGER.info("create thread pool {}, {}", key, config);
+            return newThreadPool(key, config);
+        });
+    }
+
+    /**
+     * 注册外部创建的线程池，不支持调整大小
+     *
+     * @param name     线程池名称
+     * @param executor 线程池
+     */
+    void register(String name, ExecutorService executor) {
+        checkArgument(pools.putIfAbsent(name, executor) == null, "线程池已存在: %s", name);
+    }
+
+    /**
+     * 调整线程池大小，对正在执行和已在队列中的任务没有影响
+     *
+     * @param name          线程池名称
+     * @param coreSize      核心线程数
+     * @param maxSize       最大线程数
+     * @param queueCapacity 队列容量
+     * @throws IllegalArgumentException 参数无效或未配置该线程池
+     * @throws IllegalStateException    线程池不支持调整（如虚拟线程）
+     */
+    void resize(String name, int coreSize, int maxSize, int queueCapacity) {
+        checkSize(name, coreSize, maxSize, queueCapacity);
+        ExecutorService pool = get(name);
+        if (!(pool instanceof ThreadPoolExecutor) || !(((ThreadPoolExecutor) pool).getQueue() instanceof ResizableBlockingQueue)) {
+            throw new IllegalStateException("线程池不支持调整: " + name);
+        }
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) pool;
+        // 先扩后缩，任何时刻都满足core <= max
+        if (coreSize > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maxSize);
+            executor.setCorePoolSize(coreSize);
+        } else {
+            executor.setCorePoolSize(coreSize);
+            executor.setMaximumPoolSize(maxSize);
+        }
+        ((ResizableBlockingQueue<?>) executor.getQueue()).setCapacity(queueCapacity);
+        LOGGER.info("resize thread pool {}, coreSize:{}, maxSize:{}, queueCapacity:{}", name, coreSize, maxSize, queueCapacity);
+    }
+
+    /**
+     * 重新读取配置，新配置的线程池可以使用，已创建的线程池按新配置调整大小
+     */
+    void reload() {
+        Map<String, PoolConfig> newConfigs = loadConfigs();
+        this.configs = newConfigs;
+        for (Map.Entry<String, ExecutorService> entry : pools.entrySet()) {
+            PoolConfig config = newConfigs.get(entry.getKey());
+            if (config == null || !(entry.getValue() instanceof ThreadPoolExecutor)) {
+                continue;
+            }
+            try {
+                resize(entry.getKey(), config.coreSize, config.maxSize, config.queueCapacity);
+                ((ThreadPoolExecutor) entry.getValue()).setKeepAliveTime(config.keepAliveSeconds, TimeUnit.SECONDS);
+            } catch (RuntimeException e) {
+                LOGGER.error("reload thread pool {} failed, {}", entry.getKey(), config, e);
+            }
+        }
+    }
+
+    /**
+     * 获取线程池统计
+     *
+     * @param name 线程池名称
+     * @return 线程池不是由配置创建（如虚拟线程）时为空
+     * @throws IllegalArgumentException 未配置该线程池
+     */
+    Optional<ThreadPoolMetrics> metrics(String name) {
+        ExecutorService pool = get(name);
+        if (pool instanceof InstrumentedThreadPoolExecutor) {
+            return Optional.of(((InstrumentedThreadPoolExecutor) pool).getMetrics());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return 已创建的线程池的统计，key为线程池名称
+     */
+    Map<String, ThreadPoolMetrics> allMetrics() {
+        Map<String, ThreadPoolMetrics> result = new TreeMap<>();
+        for (Map.Entry<String, ExecutorService> entry : pools.entrySet()) {
+            if (entry.getValue() instanceof InstrumentedThreadPoolExecutor) {
+                result.put(entry.getKey(), ((InstrumentedThreadPoolExecutor) entry.getValue()).getMetrics());
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return 已配置或已创建的线程池名称
+     */
+    Set<String> names() {
+        Set<String> names = new TreeSet<>(configs.keySet());
+        names.addAll(pools.keySet());
+        names.add(DEFAULT_POOL);
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * 关闭所有线程池
+     */
+    void shutdown() {
+        for (Map.Entry<String, ExecutorService> entry : pools.entrySet()) {
+            try {
+                entry.getValue().shutdown();
+            } catch (RuntimeException e) {
+                LOGGER.error("shutdown thread pool {} failed", entry.getKey(), e);
+            }
+        }
+    }
+
+    private PoolConfig configOf(String name) {
+        PoolConfig config = configs.get(name);
+        if (config == null && DEFAULT_POOL.equals(name)) {
+            return DEFAULT_POOL_CONFIG;
+        }
+        return config;
+    }
+
+    private static ExecutorService newThreadPool(String name, PoolConfig config) {
+        return new InstrumentedThreadPoolExecutor(
+                name,
+                config.coreSize,
+                config.maxSize,
+                config.keepAliveSeconds,
+                TimeUnit.SECONDS,
+                new ResizableBlockingQueue<>(config.queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat(THREAD_NAME_PREFIX + name + "-%d").build()
+        );
+    }
+
+    private static void checkSize(String name, int coreSize, int maxSize, int queueCapacity) {
+        checkArgument(coreSize >= 0 && maxSize > 0 && coreSize <= maxSize, "线程池%s的线程数无效, coreSize:%s, maxSize:%s", name, coreSize, maxSize);
+        checkArgument(queueCapacity > 0, "线程池%s的queueCapacity必须大于0", name);
+    }
+
+    private static Map<String, PoolConfig> loadConfigs() {
+        Properties properties = new Properties();
+        loadConfigFile(properties);
+        // 系统属性覆盖配置文件
+        properties.putAll(System.getProperties());
+        Map<String, Map<String, String>> poolProperties = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(PROPERTY_PREFIX) || key.equals(CONFIG_FILE_PROPERTY)) {
+                continue;
+            }
+            String rest = key.substring(PROPERTY_PREFIX.length());
+            int dot = rest.lastIndexOf('.');
+            if (dot <= 0) {
+                continue;
+            }
+            poolProperties.computeIfAbsent(rest.substring(0, dot), name -> new HashMap<>())
+                    .put(rest.substring(dot + 1), properties.getProperty(key).trim());
+        }
+        Map<String, PoolConfig> configs = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : poolProperties.entrySet()) {
+            try {
+                configs.put(entry.getKey(), PoolConfig.parse(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException e) {
+                LOGGER.error("invalid thread pool config {}, ignored", entry.getKey(), e);
+            }
+        }
+        return configs;
+    }
+
+    private static void loadConfigFile(Properties properties) {
+        String file = System.getProperty(CONFIG_FILE_PROPERTY);
+        try {
+            if (StringUtils.isNotBlank(file)) {
+                try (InputStream input = Files.newInputStream(Paths.get(file))) {
+                    properties.load(input);
+                }
+                return;
+            }
+            ClassLoader classLoader = ThreadPoolRegistry.class.getClassLoader();
+            try (InputStream input = classLoader == null ? null : classLoader.getResourceAsStream(CONFIG_RESOURCE)) {
+                if (input != null) {
+                    properties.load(input);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("load thread pool config failed, file:{}", StringUtils.defaultIfBlank(file, CONFIG_RESOURCE), e);
+        }
+    }
+
+    /**
+     * 线程池配置
+     */
+    private static final class PoolConfig {
+        private final int coreSize;
+        private final int maxSize;
+        private final int queueCapacity;
+        private final long keepAliveSeconds;
+
+        private PoolConfig(int coreSize, int maxSize, int queueCapacity, long keepAliveSeconds) {
+            this.coreSize = coreSize;
+            this.maxSize = maxSize;
+            this.queueCapacity = queueCapacity;
+            this.keepAliveSeconds = keepAliveSeconds;
+        }
+
+        /**
+         * 未配置的项：默认线程池使用{@link #DEFAULT_POOL_CONFIG}，其余线程池最大线程数等于核心线程数
+         */
+        private static PoolConfig parse(String name, Map<String, String> values) {
+            PoolConfig defaults = DEFAULT_POOL.equals(name) ? DEFAULT_POOL_CONFIG : null;
+            int coreSize = parseInt(values, CORE_SIZE, defaults == null ? Runtime.getRuntime().availableProcessors() : defaults.coreSize);
+            int maxSize = parseInt(values, MAX_SIZE, defaults == null ? coreSize : defaults.maxSize);
+            int queueCapacity = parseInt(values, QUEUE_CAPACITY, defaults == null ? 1024 : defaults.queueCapacity);
+            long keepAliveSeconds = parseInt(values, KEEP_ALIVE_SECONDS, defaults == null ? 60 : (int) defaults.keepAliveSeconds);
+            checkSize(name, coreSize, maxSize, queueCapacity);
+            checkArgument(keepAliveSeconds >= 0, "线程池%s的keepAliveSeconds不能小于0", name);
+            return new PoolConfig(coreSize, maxSize, queueCapacity, keepAliveSeconds);
+        }
+
+        private static int parseInt(Map<String, String> values, String key, int defaultValue) {
+            String value = values.get(key);
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+
+        @Override
+        public String toString() {
+            return "PoolConfig{" +
+                    "coreSize=" + coreSize +
+                    ", maxSize=" + maxSize +
+                    ", queueCapacity=" + queueCapacity +
+                    ", keepAliveSeconds=" + keepAliveSeconds +
+                    '}';
+        }
+    }
+
+}
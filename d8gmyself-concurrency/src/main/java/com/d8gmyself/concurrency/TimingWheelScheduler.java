@@ -0,0 +1,454 @@
+package com.d8gmyself.concurrency;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 分层时间轮定时器
+ * <p>
+ * 时间轮共{@value #LEVELS}层，每层{@value #WHEEL_SIZE}个槽，第n层每个槽代表{@code 256^n}个tick，
+ * 共覆盖{@code 2^32}个tick，更远的定时器放在最高层，到期前重新放入。
+ * 每个槽是双向链表，加入和取消都是O(1)，每个定时器只占一个节点对象。
+ * </p>
+ * <p>
+ * 加入和取消先进入无锁队列，由单独的tick线程在每个tick统一处理：低层转完一圈时把高层对应槽中的定时器下放到低层，
+ * 再把第0层当前槽中到期的定时器提交到工作线程池执行，任务不在tick线程中执行。
+ * tick线程不逐个tick醒来，只挂起到第0层下一个非空槽或高层非空槽下放的tick，中间的tick直接跳过；
+ * 没有定时器时一直挂起，加入新的定时器时唤醒重新计算。定时精度为一个tick，到期后最多延迟一个tick执行。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class TimingWheelScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheelScheduler.class);
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final long tickNanos;
+    private final String threadNamePrefix;
+    private final ThreadPoolExecutor workers;
+    private final Bucket[][] wheel = new Bucket[LEVELS][WHEEL_SIZE];
+    private final Queue<Timer> pendingTimers = new ConcurrentLinkedQueue<>();
+    private final Queue<Timer> cancelledTimers = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+    private volatile boolean tickerSleeping;
+    private volatile Thread ticker;
+    /**
+     * 以下只在tick线程中访问
+     */
+    private long currentTick;
+    private int timerCount;
+
+    /**
+     * @param threadNamePrefix 线程名前缀，工作线程为前缀加序号，tick线程为前缀加ticker
+     * @param tickNanos        tick间隔（纳秒），即定时精度
+     * @param workerThreads    执行到期任务的工作线程数
+     */
+    TimingWheelScheduler(String threadNamePrefix, long tickNanos, int workerThreads) {
+        checkArgument(tickNanos > 0, "tick必须大于0");
+        checkArgument(workerThreads > 0, "workerThreads必须大于0");
+        this.threadNamePrefix = threadNamePrefix;
+        this.tickNanos = tickNanos;
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat(threadNamePrefix + "%d").build());
+        this.workers.allowCoreThreadTimeOut(true);
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheel[level][slot] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * 延迟执行一次
+     *
+     * @param task  任务
+     * @param delay 延迟时间
+     * @param unit  时间单位
+     * @return 定时器，可用于取消
+     * @throws RejectedExecutionException 已关闭
+     */
+    Timer schedule(Runnable task, long delay, TimeUnit unit) {
+        return schedule(task, delay, 0, unit);
+    }
+
+    /**
+     * 固定频率周期执行，前一次执行完成前不会开始下一次；任务抛出异常后不再执行
+     *
+     * @param task         任务
+     * @param initialDelay 首次延迟时间
+     * @param period       周期，大于0
+     * @param unit         时间单位
+     * @return 定时器，可用于取消
+     * @throws RejectedExecutionException 已关闭
+     */
+    Timer scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        checkArgument(period > 0, "period必须大于0");
+        return schedule(task, initialDelay, unit.toNanos(period), unit);
+    }
+
+    /**
+     * 固定间隔周期执行，每次执行完成后再等待{@code delay}；任务抛出异常后不再执行
+     *
+     * @param task         任务
+     * @param initialDelay 首次延迟时间
+     * @param delay        间隔，大于0
+     * @param unit         时间单位
+     * @return 定时器，可用于取消
+     * @throws RejectedExecutionException 已关闭
+     */
+    Timer scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        checkArgument(delay > 0, "delay必须大于0");
+        return schedule(task, initialDelay, -unit.toNanos(delay), unit);
+    }
+
+    /**
+     * 关闭：不再接受新的定时器，未到期的定时器不再执行，已提交到工作线程池的任务继续执行完
+     */
+    void shutdown() {
+        running = false;
+        Thread thread = ticker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        workers.shutdown();
+    }
+
+    private Timer schedule(Runnable task, long delay, long periodNanos, TimeUnit unit) {
+        checkNotNull(task);
+        Timer timer = new Timer(task, System.nanoTime() + Math.max(0, unit.toNanos(delay)), periodNanos);
+        enqueue(timer);
+        return timer;
+    }
+
+    private void enqueue(Timer timer) {
+        if (!running) {
+            throw new RejectedExecutionException("scheduler has been shut down");
+        }
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::tickLoop, threadNamePrefix + "ticker");
+            this.ticker = thread;
+            thread.start();
+        }
+        pendingTimers.offer(timer);
+        if (tickerSleeping) {
+            LockSupport.unpark(ticker);
+        }
+    }
+
+    private void cancelled(Timer timer) {
+        cancelledTimers.offer(timer);
+    }
+
+    private void tickLoop() {
+        while (running) {
+            if (timerCount == 0 && pendingTimers.isEmpty()) {
+                // 时间轮为空，挂起到有新的定时器
+                tickerSleeping = true;
+                if (pendingTimers.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                tickerSleeping = false;
+                // 空闲期间的tick没有定时器，直接跳过
+                currentTick = Math.max(currentTick, elapsedTicks() - 1);
+                continue;
+            }
+            long tick = awaitTick(timerCount == 0 ? currentTick + 1 : nextWakeupTick());
+            if (!running) {
+                break;
+            }
+            // 跳过的tick中没有到期或需要下放的定时器
+            currentTick = tick;
+            try {
+                transferPendingTimers();
+                removeCancelledTimers();
+                cascade();
+                expire(wheel[0][(int) (currentTick & WHEEL_MASK)]);
+            } catch (Throwable e) {
+                LOGGER.error("timing wheel tick error", e);
+            }
+        }
+    }
+
+    /**
+     * 挂起到目标tick；期间加入新的定时器时，等到下一个tick即提前返回，由调用方放入时间轮后重新计算
+     *
+     * @param targetTick 目标tick
+     * @return 要处理的tick，不超过目标tick，且已经到达
+     */
+    private long awaitTick(long targetTick) {
+        long deadline = startNanos + targetTick * tickNanos;
+        long earliest = startNanos + (currentTick + 1) * tickNanos;
+        while (running) {
+            boolean hasPending = !pendingTimers.isEmpty();
+            long waitNanos = (hasPending ? earliest : deadline) - System.nanoTime();
+            if (waitNanos <= 0) {
+                break;
+            }
+            tickerSleeping = true;
+            // 先标记再检查，与enqueue中的唤醒配合，不会错过新的定时器
+            if (hasPending || pendingTimers.isEmpty()) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+            tickerSleeping = false;
+        }
+        return Math.min(targetTick, Math.max(currentTick + 1, elapsedTicks()));
+    }
+
+    /**
+     * 下一个需要处理的tick：第0层最近的非空槽，或高层非空槽下放的tick，取较早者
+     * <p>
+     * 第n层的槽在tick的低{@code 8n}位全为0时下放，每层只需检查之后一圈的槽
+     * </p>
+     */
+    private long nextWakeupTick() {
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            long first = (currentTick >>> shift) + 1;
+            for (long slot = first; slot <= first + WHEEL_MASK; slot++) {
+                long tick = slot << shift;
+                if (tick >= next) {
+                    break;
+                }
+                if (!wheel[level][(int) (slot & WHEEL_MASK)].isEmpty()) {
+                    next = tick;
+                    break;
+                }
+            }
+        }
+        return next == Long.MAX_VALUE ? currentTick + 1 : next;
+    }
+
+    private long elapsedTicks() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    private void transferPendingTimers() {
+        Timer timer;
+        while ((timer = pendingTimers.poll()) != null) {
+            if (timer.state.get() == Timer.CANCELLED) {
+                continue;
+            }
+            timer.deadlineTick = ticksOf(timer.deadlineNanos);
+            place(timer);
+            timerCount++;
+        }
+    }
+
+    private void removeCancelledTimers() {
+        Timer timer;
+        while ((timer = cancelledTimers.poll()) != null) {
+            Bucket bucket = timer.bucket;
+            if (bucket != null) {
+                bucket.remove(timer);
+                timerCount--;
+            }
+        }
+    }
+
+    /**
+     * 低层转完一圈时，依次把高层当前槽中的定时器重新放入（下放到低层）
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if (((currentTick >>> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0) {
+                return;
+            }
+            Bucket bucket = wheel[level][(int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+            Timer timer;
+            while ((timer = bucket.poll()) != null) {
+                place(timer);
+            }
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timer timer;
+        Timer notExpired = null;
+        while ((timer = bucket.poll()) != null) {
+            if (timer.deadlineTick > currentTick) {
+                // 超出时间轮范围的定时器，重新放入
+                timer.next = notExpired;
+                notExpired = timer;
+                continue;
+            }
+            timerCount--;
+            fire(timer);
+        }
+        while (notExpired != null) {
+            Timer next = notExpired.next;
+            notExpired.next = null;
+            place(notExpired);
+            notExpired = next;
+        }
+    }
+
+    private void place(Timer timer) {
+        long ticks = Math.min(Math.max(timer.deadlineTick - currentTick, 0), MAX_TICKS);
+        long expiration = currentTick + ticks;
+        int level = 0;
+        while (level < LEVELS - 1 && ticks >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        wheel[level][(int) ((expiration >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(timer);
+    }
+
+    private long ticksOf(long deadlineNanos) {
+        long elapsed = deadlineNanos - startNanos;
+        // 向上取整，不提前执行
+        return elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+    }
+
+    private void fire(Timer timer) {
+        if (timer.periodNanos == 0 && !timer.state.compareAndSet(Timer.WAITING, Timer.EXPIRED)) {
+            return;
+        }
+        if (timer.state.get() == Timer.CANCELLED) {
+            return;
+        }
+        try {
+            workers.execute(timer);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("timing wheel worker rejected task, scheduler is shutting down: {}", timer.task);
+        }
+    }
+
+    /**
+     * 定时器，同时是提交到工作线程池的任务
+     */
+    final class Timer implements Runnable {
+
+        private static final int WAITING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Runnable task;
+        /**
+         * 大于0为固定频率，小于0为固定间隔，0为只执行一次
+         */
+        private final long periodNanos;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile long deadlineNanos;
+        /**
+         * 以下只在tick线程中访问
+         */
+        private long deadlineTick;
+        private Bucket bucket;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(Runnable task, long deadlineNanos, long periodNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * 取消，尚未到期的定时器从时间轮中移除，正在执行的任务不受影响
+         *
+         * @return 已到期、已取消时返回false
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            cancelled(this);
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        @Override
+        public void run() {
+            if (periodNanos != 0 && state.get() != WAITING) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                // 同ScheduledThreadPoolExecutor，周期任务抛出异常后不再执行
+                state.compareAndSet(WAITING, CANCELLED);
+                LOGGER.error("timer task occurs exception: {}", task, e);
+                return;
+            }
+            if (periodNanos == 0 || state.get() != WAITING) {
+                return;
+            }
+            deadlineNanos = periodNanos > 0 ? deadlineNanos + periodNanos : System.nanoTime() - periodNanos;
+            try {
+                enqueue(this);
+            } catch (RejectedExecutionException e) {
+                state.compareAndSet(WAITING, CANCELLED);
+            }
+        }
+    }
+
+    /**
+     * 时间轮的槽，带哨兵的双向链表，只在tick线程中访问
+     */
+    private final class Bucket {
+
+        private final Timer head = new Timer(() -> {
+        }, 0, 0);
+
+        private Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        private void add(Timer timer) {
+            Timer tail = head.prev;
+            timer.prev = tail;
+            timer.next = head;
+            tail.next = timer;
+            head.prev = timer;
+            timer.bucket = this;
+        }
+
+        private void remove(Timer timer) {
+            timer.prev.next = timer.next;
+            timer.next.prev = timer.prev;
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = null;
+        }
+
+        private boolean isEmpty() {
+            return head.next == head;
+        }
+
+        private Timer poll() {
+            Timer first = head.next;
+            if (first == head) {
+                return null;
+            }
+            remove(first);
+            return first;
+        }
+    }
+
+}
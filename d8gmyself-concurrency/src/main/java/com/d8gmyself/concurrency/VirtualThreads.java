@@ -0,0 +1,39 @@
+package com.d8gmyself.concurrency;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程支持
+ * <p>
+ * 该类为Java 8版本，始终不支持虚拟线程；
+ * 在Java 21及以上运行时，会被multi-release jar中{@code META-INF/versions/21}下的同名类替换
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return Java 21及以上返回true
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     *
+     * @param namePrefix 线程名前缀，线程名为前缀加自增序号
+     * @return 线程池
+     * @throws UnsupportedOperationException 当前运行时不支持虚拟线程
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        throw new UnsupportedOperationException("虚拟线程需要Java 21及以上版本");
+    }
+
+}
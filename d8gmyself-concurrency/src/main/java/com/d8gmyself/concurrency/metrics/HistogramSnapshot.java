@@ -0,0 +1,85 @@
+package com.d8gmyself.concurrency.metrics;
+
+/**
+ * {@link LatencyHistogram}的不可变快照
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class HistogramSnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] bucketCounts, long count, long sum, long max) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * @return 记录次数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return 总耗时（纳秒）
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return 最大耗时（纳秒）
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return 平均耗时（纳秒），无记录时为0
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * 获取百分位耗时，结果为所在桶的上界，不超过{@link #getMax()}
+     *
+     * @param percentile 百分位，取值[0, 100]
+     * @return 耗时（纳秒），无记录时为0
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (long bucketCount : bucketCounts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", mean=" + getMean() +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + max +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.d8gmyself.concurrency;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link CompletableFutures}在注册回调之前校验超时参数
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class CompletableFuturesTest {
+
+    private final TimingWheelScheduler scheduler = new TimingWheelScheduler("futures-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void allOfValidatesTimeoutForEmptyInput() {
+        try {
+            CompletableFutures.allOf(Collections.<CompletableFuture<Integer>>emptyList(), 0, TimeUnit.SECONDS, scheduler);
+            fail("timeout must be positive");
+        } catch (IllegalArgumentException expected) {
+            // 空输入同样校验
+        }
+    }
+
+    @Test
+    public void invalidArgumentsLeaveNoCallbacksOnInputs() {
+        List<CompletableFuture<Integer>> inputs = Arrays.asList(new CompletableFuture<>(), new CompletableFuture<>());
+        try {
+            CompletableFutures.allOf(inputs, -1, TimeUnit.SECONDS, scheduler);
+            fail("timeout must be positive");
+        } catch (IllegalArgumentException expected) {
+            // 超时非法
+        }
+        try {
+            CompletableFutures.anyOf(inputs, 1, null, scheduler);
+            fail("unit must not be null");
+        } catch (NullPointerException expected) {
+            // 时间单位为空
+        }
+        try {
+            CompletableFutures.anyOf(inputs, 1, TimeUnit.SECONDS, null);
+            fail("scheduler must not be null");
+        } catch (NullPointerException expected) {
+            // 定时器为空
+        }
+        for (CompletableFuture<Integer> input : inputs) {
+            assertEquals(0, input.getNumberOfDependents());
+        }
+    }
+
+}
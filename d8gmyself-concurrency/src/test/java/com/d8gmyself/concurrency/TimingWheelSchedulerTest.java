@@ -0,0 +1,272 @@
+package com.d8gmyself.concurrency;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TimingWheelScheduler}的层间下放边界、取消、周期执行和空闲后唤醒
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class TimingWheelSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private TimingWheelScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void firesAcrossCascadeBoundaries() throws InterruptedException {
+        // tick很小，到期前的tick由tick线程连续追赶，65536个tick只需几十毫秒
+        long tickNanos = TimeUnit.MICROSECONDS.toNanos(1);
+        scheduler = new TimingWheelScheduler("wheel-test-", tickNanos, 1);
+        assertFiresOnTime(tickNanos, 1, 255, 256, 257, 511, 512, 513, 65535, 65536, 65537);
+    }
+
+    @Test
+    public void firesAcrossCascadeBoundariesFromMidWheel() throws InterruptedException {
+        long tickNanos = TimeUnit.MICROSECONDS.toNanos(1);
+        scheduler = new TimingWheelScheduler("wheel-test-", tickNanos, 1);
+        // 先让tick线程转过大半圈，之后加入的定时器跨越第0层和第1层的边界
+        assertFiresOnTime(tickNanos, 200);
+        assertFiresOnTime(tickNanos, 56, 255, 256, 65535, 65536, 65537);
+    }
+
+    @Test
+    public void cancelBeforeFire() throws InterruptedException {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheelScheduler.Timer timer = scheduler.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        assertTrue(timer.cancel());
+        assertTrue(timer.isCancelled());
+        assertFalse(timer.cancel());
+        // 之后的定时器仍正常执行，且被取消的定时器不会执行
+        CountDownLatch later = new CountDownLatch(1);
+        scheduler.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+        assertTrue(later.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void cancelDuringAndAfterOneShotFire() throws InterruptedException {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        TimingWheelScheduler.Timer timer = scheduler.schedule(() -> {
+            running.countDown();
+            awaitQuietly(release);
+            finished.countDown();
+        }, 5, TimeUnit.MILLISECONDS);
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 已到期，正在执行的任务不受影响
+        assertFalse(timer.cancel());
+        assertFalse(timer.isCancelled());
+        release.countDown();
+        assertTrue(finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(timer.cancel());
+        assertFalse(timer.isCancelled());
+    }
+
+    @Test
+    public void cancelDuringPeriodicRunStopsRescheduling() throws InterruptedException {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TimingWheelScheduler.Timer timer = scheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            running.countDown();
+            awaitQuietly(release);
+        }, 5, 5, TimeUnit.MILLISECONDS);
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(timer.cancel());
+        release.countDown();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void fixedRateReschedulesUntilCancelled() throws InterruptedException {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 2);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch fiveRuns = new CountDownLatch(5);
+        TimingWheelScheduler.Timer timer = scheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            fiveRuns.countDown();
+        }, 10, 10, TimeUnit.MILLISECONDS);
+        assertTrue(fiveRuns.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(timer.cancel());
+        // 取消时可能有一次已提交到工作线程池
+        TimeUnit.MILLISECONDS.sleep(30);
+        int afterCancel = runs.get();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(afterCancel, runs.get());
+    }
+
+    @Test
+    public void fixedDelayWaitsAfterEachRun() throws InterruptedException {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 2);
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(20);
+        List<long[]> runs = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+        TimingWheelScheduler.Timer timer = scheduler.scheduleWithFixedDelay(() -> {
+            long start = System.nanoTime();
+            sleepQuietly(10);
+            runs.add(new long[]{start, System.nanoTime()});
+            done.countDown();
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        timer.cancel();
+        for (int i = 1; i < 4; i++) {
+            long gap = runs.get(i)[0] - runs.get(i - 1)[1];
+            assertTrue("gap: " + gap, gap >= delayNanos);
+        }
+    }
+
+    @Test
+    public void periodicTaskStopsAfterException() throws InterruptedException {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheelScheduler.Timer timer = scheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("expected");
+        }, 5, 5, TimeUnit.MILLISECONDS);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(1, runs.get());
+        assertTrue(timer.isCancelled());
+    }
+
+    @Test
+    public void wakesUpAfterIdleWithoutFiringEarly() throws InterruptedException {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        scheduler = new TimingWheelScheduler("wheel-test-", tickNanos, 1);
+        CountDownLatch first = new CountDownLatch(1);
+        scheduler.schedule(first::countDown, 1, TimeUnit.MILLISECONDS);
+        assertTrue(first.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 时间轮为空，tick线程挂起，期间经过的tick在唤醒后跳过
+        TimeUnit.MILLISECONDS.sleep(300);
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(20);
+        long scheduledAt = System.nanoTime();
+        long[] firedAt = new long[1];
+        CountDownLatch second = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            firedAt[0] = System.nanoTime();
+            second.countDown();
+        }, 20, TimeUnit.MILLISECONDS);
+        assertTrue(second.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        long elapsed = firedAt[0] - scheduledAt;
+        assertTrue("elapsed: " + elapsed, elapsed >= delayNanos);
+        assertTrue("elapsed: " + elapsed, elapsed < delayNanos + TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void earlierTimerWakesTickerWaitingForLaterTimer() throws InterruptedException {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        scheduler.scheduleAtFixedRate(() -> {
+        }, 1, 1, TimeUnit.HOURS);
+        // tick线程挂起到远处的定时器
+        TimeUnit.MILLISECONDS.sleep(100);
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(20);
+        long scheduledAt = System.nanoTime();
+        long[] firedAt = new long[1];
+        CountDownLatch fired = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            firedAt[0] = System.nanoTime();
+            fired.countDown();
+        }, 20, TimeUnit.MILLISECONDS);
+        assertTrue(fired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        long elapsed = firedAt[0] - scheduledAt;
+        assertTrue("elapsed: " + elapsed, elapsed >= delayNanos);
+        assertTrue("elapsed: " + elapsed, elapsed < delayNanos + TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void tickerDoesNotWakeEveryTickForDistantTimer() throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadCpuTimeSupported());
+        scheduler = new TimingWheelScheduler("wheel-idle-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        scheduler.scheduleAtFixedRate(() -> {
+        }, 1, 1, TimeUnit.HOURS);
+        Thread ticker = null;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("wheel-idle-test-ticker")) {
+                ticker = thread;
+            }
+        }
+        Assume.assumeTrue(ticker != null);
+        TimeUnit.MILLISECONDS.sleep(100);
+        long cpuBefore = threads.getThreadCpuTime(ticker.getId());
+        TimeUnit.SECONDS.sleep(2);
+        long cpuNanos = threads.getThreadCpuTime(ticker.getId()) - cpuBefore;
+        // 逐个tick醒来时2秒内约2000次唤醒，只在层间边界醒来时不到10次
+        assertTrue("ticker cpu: " + cpuNanos, cpuNanos < TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void rejectsAfterShutdown() {
+        scheduler = new TimingWheelScheduler("wheel-test-", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        scheduler.shutdown();
+        scheduler.schedule(() -> {
+        }, 1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 按给定的tick数加入定时器，检查都不早于到期时间执行，且延迟不超过1秒
+     */
+    private void assertFiresOnTime(long tickNanos, long... delayTicks) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(delayTicks.length);
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        long maxLateNanos = TimeUnit.SECONDS.toNanos(1);
+        for (long ticks : delayTicks) {
+            long deadline = System.nanoTime() + ticks * tickNanos;
+            scheduler.schedule(() -> {
+                long late = System.nanoTime() - deadline;
+                if (late < 0 || late > maxLateNanos) {
+                    failures.add(ticks + " ticks fired " + late + "ns after deadline");
+                }
+                done.countDown();
+            }, ticks * tickNanos, TimeUnit.NANOSECONDS);
+        }
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Collections.emptyList(), failures);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,364 @@
+package com.d8gmyself.core.eventbus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 紧凑的二进制事件编解码
+ * <p>
+ * 只支持构造时登记的事件类型，编码结果为{@code [short 类型序号][字段值...]}，不包含类名和字段名。
+ * 字段按类层次从父类到子类、同一类中按字段名排序，跳过static和transient字段；
+ * 支持的字段类型为基本类型及其包装类型、String、枚举、byte[]以及登记过的类型（按字段声明的类型精确编码）。
+ * 事件类型需要有无参构造方法（可以是private）。
+ * </p>
+ * <p>
+ * 编解码双方必须以相同顺序登记相同的类型，且类的字段一致。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class BinaryEventCodec implements EventCodec {
+
+    private static final int MAX_TYPES = 0xFFFF;
+    private static final Comparator<Field> FIELD_ORDER = Comparator.comparing(Field::getName);
+
+    private final TypeLayout[] layouts;
+    private final Map<Class<?>, TypeLayout> layoutsByType = new HashMap<>();
+
+    /**
+     * @param eventTypes 支持的事件类型，类型序号为其在数组中的下标
+     * @throws IllegalArgumentException 类型重复、没有无参构造方法或包含不支持的字段类型
+     */
+    public BinaryEventCodec(Class<?>... eventTypes) {
+        checkArgument(eventTypes.length > 0 && eventTypes.length <= MAX_TYPES, "eventTypes数量必须在1到%s之间", MAX_TYPES);
+        this.layouts = new TypeLayout[eventTypes.length];
+        for (int i = 0; i < eventTypes.length; i++) {
+            TypeLayout layout = new TypeLayout(i, eventTypes[i]);
+            checkArgument(layoutsByType.put(eventTypes[i], layout) == null, "事件类型重复: %s", eventTypes[i]);
+            layouts[i] = layout;
+        }
+        // 全部登记后再解析字段，字段可以引用任意登记过的类型（包括自身）
+        for (TypeLayout layout : layouts) {
+            layout.fields = resolveFields(layout.type);
+        }
+    }
+
+    @Override
+    public byte[] encode(Object event) throws IOException {
+        TypeLayout layout = layoutsByType.get(event.getClass());
+        if (layout == null) {
+            throw new IOException("未登记的事件类型: " + event.getClass().getName());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeShort(layout.id);
+        writeFields(output, layout, event);
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] data) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+        int id = input.readUnsignedShort();
+        if (id >= layouts.length) {
+            throw new IOException("未知的类型序号: " + id);
+        }
+        return readFields(input, layouts[id]);
+    }
+
+    private List<FieldCodec> resolveFields(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            hierarchy.add(0, clazz);
+        }
+        List<FieldCodec> fields = new ArrayList<>();
+        for (Class<?> clazz : hierarchy) {
+            Field[] declaredFields = clazz.getDeclaredFields();
+            Arrays.sort(declaredFields, FIELD_ORDER);
+            for (Field field : declaredFields) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(new FieldCodec(field, kindOf(field)));
+            }
+        }
+        return fields;
+    }
+
+    private FieldKind kindOf(Field field) {
+        Class<?> type = field.getType();
+        if (type.isPrimitive()) {
+            return FieldKind.valueOf(type.getName().toUpperCase(Locale.ROOT));
+        }
+        if (type == Boolean.class || type == Byte.class || type == Character.class || type == Short.class
+                || type == Integer.class || type == Long.class || type == Float.class || type == Double.class) {
+            return FieldKind.BOXED;
+        }
+        if (type == String.class) {
+            return FieldKind.STRING;
+        }
+        if (type == byte[].class) {
+            return FieldKind.BYTES;
+        }
+        if (type.isEnum()) {
+            return FieldKind.ENUM;
+        }
+        if (layoutsByType.containsKey(type)) {
+            return FieldKind.NESTED;
+        }
+        throw new IllegalArgumentException("不支持的字段类型: " + field);
+    }
+
+    private void writeFields(DataOutputStream output, TypeLayout layout, Object object) throws IOException {
+        try {
+            for (FieldCodec fieldCodec : layout.fields) {
+                writeField(output, fieldCodec, object);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void writeField(DataOutputStream output, FieldCodec fieldCodec, Object object) throws IOException, IllegalAccessException {
+        Field field = fieldCodec.field;
+        switch (fieldCodec.kind) {
+            case BOOLEAN:
+                output.writeBoolean(field.getBoolean(object));
+                break;
+            case BYTE:
+                output.writeByte(field.getByte(object));
+                break;
+            case CHAR:
+                output.writeChar(field.getChar(object));
+                break;
+            case SHORT:
+                output.writeShort(field.getShort(object));
+                break;
+            case INT:
+                output.writeInt(field.getInt(object));
+                break;
+            case LONG:
+                output.writeLong(field.getLong(object));
+                break;
+            case FLOAT:
+                output.writeFloat(field.getFloat(object));
+                break;
+            case DOUBLE:
+                output.writeDouble(field.getDouble(object));
+                break;
+            case BOXED:
+                writeBoxed(output, field.getType(), field.get(object));
+                break;
+            case STRING:
+                String string = (String) field.get(object);
+                writeBytes(output, string == null ? null : string.getBytes(StandardCharsets.UTF_8));
+                break;
+            case BYTES:
+                writeBytes(output, (byte[]) field.get(object));
+                break;
+            case ENUM:
+                Enum<?> value = (Enum<?>) field.get(object);
+                output.writeInt(value == null ? -1 : value.ordinal());
+                break;
+            case NESTED:
+                Object nested = field.get(object);
+                output.writeBoolean(nested != null);
+                if (nested != null) {
+                    if (nested.getClass() != field.getType()) {
+                        throw new IOException("字段值的类型与声明类型不一致: " + field + ", " + nested.getClass().getName());
+                    }
+                    writeFields(output, layoutsByType.get(field.getType()), nested);
+                }
+                break;
+            default:
+                throw new IllegalStateException("unknown field kind: " + fieldCodec.kind);
+        }
+    }
+
+    private static void writeBoxed(DataOutputStream output, Class<?> type, Object value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value == null) {
+            return;
+        }
+        if (type == Boolean.class) {
+            output.writeBoolean((Boolean) value);
+        } else if (type == Byte.class) {
+            output.writeByte((Byte) value);
+        } else if (type == Character.class) {
+            output.writeChar((Character) value);
+        } else if (type == Short.class) {
+            output.writeShort((Short) value);
+        } else if (type == Integer.class) {
+            output.writeInt((Integer) value);
+        } else if (type == Long.class) {
+            output.writeLong((Long) value);
+        } else if (type == Float.class) {
+            output.writeFloat((Float) value);
+        } else {
+            output.writeDouble((Double) value);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private Object readFields(DataInputStream input, TypeLayout layout) throws IOException {
+        try {
+            Object object = layout.constructor.newInstance();
+            for (FieldCodec fieldCodec : layout.fields) {
+                readField(input, fieldCodec, object);
+            }
+            return object;
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("创建事件失败: " + layout.type.getName(), e);
+        }
+    }
+
+    private void readField(DataInputStream input, FieldCodec fieldCodec, Object object) throws IOException, IllegalAccessException {
+        Field field = fieldCodec.field;
+        switch (fieldCodec.kind) {
+            case BOOLEAN:
+                field.setBoolean(object, input.readBoolean());
+                break;
+            case BYTE:
+                field.setByte(object, input.readByte());
+                break;
+            case CHAR:
+                field.setChar(object, input.readChar());
+                break;
+            case SHORT:
+                field.setShort(object, input.readShort());
+                break;
+            case INT:
+                field.setInt(object, input.readInt());
+                break;
+            case LONG:
+                field.setLong(object, input.readLong());
+                break;
+            case FLOAT:
+                field.setFloat(object, input.readFloat());
+                break;
+            case DOUBLE:
+                field.setDouble(object, input.readDouble());
+                break;
+            case BOXED:
+                field.set(object, readBoxed(input, field.getType()));
+                break;
+            case STRING:
+                byte[] string = readBytes(input);
+                field.set(object, string == null ? null : new String(string, StandardCharsets.UTF_8));
+                break;
+            case BYTES:
+                field.set(object, readBytes(input));
+                break;
+            case ENUM:
+                int ordinal = input.readInt();
+                Object[] constants = field.getType().getEnumConstants();
+                if (ordinal >= constants.length) {
+                    throw new IOException("枚举序号越界: " + field + ", " + ordinal);
+                }
+                field.set(object, ordinal < 0 ? null : constants[ordinal]);
+                break;
+            case NESTED:
+                field.set(object, input.readBoolean() ? readFields(input, layoutsByType.get(field.getType())) : null);
+                break;
+            default:
+                throw new IllegalStateException("unknown field kind: " + fieldCodec.kind);
+        }
+    }
+
+    private static Object readBoxed(DataInputStream input, Class<?> type) throws IOException {
+        if (!input.readBoolean()) {
+            return null;
+        }
+        if (type == Boolean.class) {
+            return input.readBoolean();
+        } else if (type == Byte.class) {
+            return input.readByte();
+        } else if (type == Character.class) {
+            return input.readChar();
+        } else if (type == Short.class) {
+            return input.readShort();
+        } else if (type == Integer.class) {
+            return input.readInt();
+        } else if (type == Long.class) {
+            return input.readLong();
+        } else if (type == Float.class) {
+            return input.readFloat();
+        } else {
+            return input.readDouble();
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > input.available()) {
+            throw new IOException("数据长度越界: " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private enum FieldKind {
+        BOOLEAN, BYTE, CHAR, SHORT, INT, LONG, FLOAT, DOUBLE, BOXED, STRING, BYTES, ENUM, NESTED
+    }
+
+    private static final class FieldCodec {
+        private final Field field;
+        private final FieldKind kind;
+
+        private FieldCodec(Field field, FieldKind kind) {
+            this.field = field;
+            this.kind = kind;
+        }
+    }
+
+    private static final class TypeLayout {
+        private final int id;
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private List<FieldCodec> fields;
+
+        private TypeLayout(int id, Class<?> type) {
+            checkArgument(!type.isInterface() && !Modifier.isAbstract(type.getModifiers()) && !type.isEnum() && !type.isArray(),
+                    "事件类型必须是具体类: %s", type);
+            this.id = id;
+            this.type = type;
+            try {
+                this.constructor = type.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("事件类型没有无参构造方法: " + type.getName(), e);
+            }
+            this.constructor.setAccessible(true);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 合并信箱，用于配置了{@link Subscribe#conflationKey()}的异步订阅者
+ * <p>
+ * 信箱中只排队key，每个key只保留最新的事件：尚未处理的事件被同key的新事件原地替换，
+ * key的处理顺序为其第一个未处理事件的到达顺序。
+ * 待处理事件数不超过不同key的个数，订阅者处理不过来时只会跳过过期的中间状态，不会丢失最终状态。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+class ConflatingMailbox extends SubscriberMailbox {
+
+    /**
+     * ConcurrentHashMap不支持null，null key用该对象代替
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private final KeyExtractor<Object> keyExtractor;
+    private final ConcurrentMap<Object, Object> latestEvents = new ConcurrentHashMap<>();
+
+    ConflatingMailbox(Subscriber subscriber, KeyExtractor<Object> keyExtractor) {
+        super(subscriber);
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    void offer(Object event) {
+        Object key = keyExtractor.extract(QueuedEvent.unwrap(event));
+        if (key == null) {
+            key = NULL_KEY;
+        }
+        // 已有未处理的同key事件时只替换，不再排队
+        Object replaced = latestEvents.put(key, event);
+        if (replaced == null) {
+            super.offer(key);
+        } else {
+            QueuedEvent.discard(replaced);
+        }
+    }
+
+    @Override
+    Object take() {
+        return latestEvents.remove(super.take());
+    }
+
+}
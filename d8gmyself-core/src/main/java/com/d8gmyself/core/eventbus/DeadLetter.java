@@ -0,0 +1,81 @@
+package com.d8gmyself.core.eventbus;
+
+import java.lang.reflect.Method;
+
+/**
+ * 异步订阅者重试用尽后仍处理失败的事件
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class DeadLetter {
+
+    private final Subscriber subscriber;
+    private final Object event;
+    private final int attempts;
+    private final Throwable failure;
+    private final long timestamp;
+
+    DeadLetter(Subscriber subscriber, Object event, int attempts, Throwable failure) {
+        this.subscriber = subscriber;
+        this.event = event;
+        this.attempts = attempts;
+        this.failure = failure;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * @return 事件，批量订阅者为事件列表
+     */
+    public Object getEvent() {
+        return event;
+    }
+
+    /**
+     * @return 订阅者所在对象
+     */
+    public Object getSubscriber() {
+        return subscriber.getTarget();
+    }
+
+    /**
+     * @return 事件处理方法
+     */
+    public Method getSubscriberMethod() {
+        return subscriber.getMethod();
+    }
+
+    /**
+     * @return 已执行的次数
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return 最后一次执行的异常
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return 放入死信队列的时间（毫秒）
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    Subscriber subscriber() {
+        return subscriber;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetter{" +
+                "subscriberMethod=" + subscriber.getMethod() +
+                ", event=" + event +
+                ", attempts=" + attempts +
+                ", failure=" + failure +
+                '}';
+    }
+}
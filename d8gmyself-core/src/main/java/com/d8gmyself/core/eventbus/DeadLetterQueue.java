@@ -0,0 +1,117 @@
+package com.d8gmyself.core.eventbus;
+
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 有界的死信队列，保存异步订阅者重试用尽后仍处理失败的事件
+ * <p>
+ * 队列满时丢弃最早的死信；死信只保存在内存中，可以查看，也可以重新投递给原订阅者。
+ * 订阅者取消订阅时移除它的死信，避免死信队列一直持有已取消的订阅者。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class DeadLetterQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterQueue.class);
+
+    static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final ArrayDeque<DeadLetter> letters;
+    private long dropped;
+
+    DeadLetterQueue(int capacity) {
+        checkArgument(capacity > 0, "capacity必须大于0");
+        this.capacity = capacity;
+        this.letters = new ArrayDeque<>(Math.min(capacity, 64));
+    }
+
+    synchronized void add(DeadLetter letter) {
+        if (!letter.subscriber().isActive()) {
+            // 已取消订阅，不再持有订阅者
+            return;
+        }
+        if (letters.size() >= capacity) {
+            DeadLetter oldest = letters.poll();
+            dropped++;
+            logger.warn("dead letter queue is full, oldest dropped: {}", oldest);
+        }
+        letters.add(letter);
+    }
+
+    /**
+     * 移除订阅者的所有死信，订阅者取消订阅时调用；与{@link #add(DeadLetter)}互斥，之后不会再放入该订阅者的死信
+     */
+    synchronized void remove(Subscriber subscriber) {
+        letters.removeIf(letter -> letter.subscriber() == subscriber);
+    }
+
+    /**
+     * @return 当前所有死信，按放入顺序
+     */
+    public synchronized List<DeadLetter> getDeadLetters() {
+        return ImmutableList.copyOf(letters);
+    }
+
+    public synchronized int size() {
+        return letters.size();
+    }
+
+    /**
+     * @return 因队列满被丢弃的死信数
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * 从队列中移除死信，并重新投递给原订阅者，重新计算重试次数
+     *
+     * @param letter 要重新投递的死信
+     * @return 死信不在队列中或原订阅者已取消订阅时返回false
+     */
+    public boolean replay(DeadLetter letter) {
+        synchronized (this) {
+            if (!letters.remove(letter)) {
+                return false;
+            }
+        }
+        return letter.subscriber().replay(letter.getEvent());
+    }
+
+    /**
+     * 重新投递当前所有死信，参见{@link #replay(DeadLetter)}
+     *
+     * @return 重新投递的死信数
+     */
+    public int replayAll() {
+        List<DeadLetter> replaying;
+        synchronized (this) {
+            replaying = ImmutableList.copyOf(letters);
+            letters.clear();
+        }
+        int replayed = 0;
+        for (DeadLetter letter : replaying) {
+            if (letter.subscriber().replay(letter.getEvent())) {
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * 清空死信
+     */
+    public synchronized void clear() {
+        letters.clear();
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 订阅者处理完一次投递后的回调
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+@FunctionalInterface
+interface DeliveryCallback {
+
+    /**
+     * 处理完成，包括事件被合并跳过
+     *
+     * @param failure 事件处理方法抛出的异常，成功时为null
+     */
+    void onComplete(Throwable failure);
+
+}
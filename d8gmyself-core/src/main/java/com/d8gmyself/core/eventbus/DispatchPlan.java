@@ -0,0 +1,210 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 分发计划，某一具体事件类型在当前订阅关系下的有序订阅者快照
+ * <p>
+ * 计划本身不可变，订阅关系变化时{@link SubscriberRegistry}通过二分查找插入或移除单个订阅者得到新计划并替换旧计划，
+ * 不需要重新收集和排序全部订阅者。按主题发布时的计划不缓存，每次发布由事件类型的计划和主题匹配到的订阅者合并得到
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class DispatchPlan {
+
+    /**
+     * 按order、注册顺序排序，注册序号唯一，不会有相等的两个订阅者
+     */
+    static final Comparator<Subscriber> ORDER =
+            Comparator.comparingInt(Subscriber::getOrder).thenComparingLong(Subscriber::getSequence);
+
+    private static final Subscriber[] EMPTY = new Subscriber[0];
+
+    private final Subscriber[] subscribers;
+    /**
+     * 按主题发布时的主题，其余为null
+     */
+    private final String topic;
+    /**
+     * 其中的批量订阅者，批量发布结束后需要立即处理它们的缓冲
+     */
+    private final Subscriber[] batchSubscribers;
+    /**
+     * 事件类型标记了{@link StickyEvent}时保留事件的环形数组，其余为null
+     */
+    private final StickyEventRing stickyRing;
+    /**
+     * 按主题发布时合并的事件类型计划，其余为null
+     */
+    private final DispatchPlan base;
+    /**
+     * 按主题发布时匹配的前缀树及匹配前的版本
+     */
+    private final TopicTrie topicTrie;
+    private final long topicTrieVersion;
+    /**
+     * 是否已被新计划替换
+     */
+    private volatile boolean stale;
+
+    DispatchPlan(Subscriber[] subscribers, String topic, StickyEventRing stickyRing) {
+        this(subscribers, topic, stickyRing, null, null, 0);
+    }
+
+    private DispatchPlan(Subscriber[] subscribers, String topic, StickyEventRing stickyRing, DispatchPlan base,
+                         TopicTrie topicTrie, long topicTrieVersion) {
+        this.subscribers = subscribers;
+        this.topic = topic;
+        this.stickyRing = stickyRing;
+        this.base = base;
+        this.topicTrie = topicTrie;
+        this.topicTrieVersion = topicTrieVersion;
+        if (base != null && base.subscribers == subscribers) {
+            // 没有匹配的主题订阅者，直接共用
+            this.batchSubscribers = base.batchSubscribers;
+            return;
+        }
+        int batchCount = 0;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isBatch()) {
+                batchCount++;
+            }
+        }
+        if (batchCount == 0) {
+            this.batchSubscribers = EMPTY;
+        } else {
+            this.batchSubscribers = new Subscriber[batchCount];
+            int i = 0;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.isBatch()) {
+                    batchSubscribers[i++] = subscriber;
+                }
+            }
+        }
+    }
+
+    static DispatchPlan empty(String topic, StickyEventRing stickyRing) {
+        return new DispatchPlan(EMPTY, topic, stickyRing);
+    }
+
+    /**
+     * 按主题发布时的计划
+     *
+     * @param topic       发布的主题
+     * @param matched     主题匹配到的订阅者，不在当前计划中
+     * @param topicTrie   主题前缀树
+     * @param trieVersion 匹配前前缀树的版本
+     * @return 新计划
+     */
+    DispatchPlan forTopic(String topic, List<Subscriber> matched, TopicTrie topicTrie, long trieVersion) {
+        Subscriber[] merged = subscribers;
+        if (!matched.isEmpty()) {
+            Subscriber[] topicSubscribers = matched.toArray(new Subscriber[0]);
+            Arrays.sort(topicSubscribers, ORDER);
+            merged = new Subscriber[subscribers.length + topicSubscribers.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < subscribers.length && j < topicSubscribers.length) {
+                merged[k++] = ORDER.compare(subscribers[i], topicSubscribers[j]) <= 0 ? subscribers[i++] : topicSubscribers[j++];
+            }
+            while (i < subscribers.length) {
+                merged[k++] = subscribers[i++];
+            }
+            while (j < topicSubscribers.length) {
+                merged[k++] = topicSubscribers[j++];
+            }
+        }
+        return new DispatchPlan(merged, topic, stickyRing, this, topicTrie, trieVersion);
+    }
+
+    /**
+     * 加入一个订阅者后的新计划
+     *
+     * @param subscriber 新订阅者
+     * @return 已包含该订阅者时返回自身
+     */
+    DispatchPlan withSubscriber(Subscriber subscriber) {
+        int index = Arrays.binarySearch(subscribers, subscriber, ORDER);
+        if (index >= 0) {
+            return this;
+        }
+        int insertion = -index - 1;
+        Subscriber[] result = new Subscriber[subscribers.length + 1];
+        System.arraycopy(subscribers, 0, result, 0, insertion);
+        result[insertion] = subscriber;
+        System.arraycopy(subscribers, insertion, result, insertion + 1, subscribers.length - insertion);
+        return new DispatchPlan(result, topic, stickyRing);
+    }
+
+    /**
+     * 移除一个订阅者后的新计划
+     *
+     * @param subscriber 要移除的订阅者
+     * @return 不包含该订阅者时返回自身
+     */
+    DispatchPlan withoutSubscriber(Subscriber subscriber) {
+        int index = Arrays.binarySearch(subscribers, subscriber, ORDER);
+        if (index < 0) {
+            return this;
+        }
+        if (subscribers.length == 1) {
+            return empty(topic, stickyRing);
+        }
+        Subscriber[] result = new Subscriber[subscribers.length - 1];
+        System.arraycopy(subscribers, 0, result, 0, index);
+        System.arraycopy(subscribers, index + 1, result, index, result.length - index);
+        return new DispatchPlan(result, topic, stickyRing);
+    }
+
+    /**
+     * @return 已按{@link Subscribe#order()}排序的订阅者，调用方不可修改
+     */
+    Subscriber[] getSubscribers() {
+        return subscribers;
+    }
+
+    /**
+     * @return 按主题发布时的主题，其余为null
+     */
+    String getTopic() {
+        return topic;
+    }
+
+    /**
+     * @return 事件类型标记了{@link StickyEvent}时保留事件的环形数组，其余为null
+     */
+    StickyEventRing getStickyRing() {
+        return stickyRing;
+    }
+
+    /**
+     * 被新计划替换时调用，正在使用该计划发布粘性事件的线程据此重新获取
+     */
+    void markStale() {
+        this.stale = true;
+    }
+
+    /**
+     * @return 是否已被新计划替换；按主题发布的计划在事件类型的计划被替换或主题订阅变化后过期
+     */
+    boolean isStale() {
+        if (base != null) {
+            return base.isStale() || topicTrie.version() != topicTrieVersion;
+        }
+        return stale;
+    }
+
+    /**
+     * 立即处理批量订阅者中缓冲的事件
+     */
+    void flushBatches() {
+        for (Subscriber subscriber : batchSubscribers) {
+            subscriber.flushBatch();
+        }
+    }
+
+}
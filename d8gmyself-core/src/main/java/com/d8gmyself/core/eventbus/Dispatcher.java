@@ -1,7 +1,5 @@
 package com.d8gmyself.core.eventbus;
 
-import java.util.Iterator;
-
 /**
  * 事件分发
  *
@@ -9,12 +7,48 @@ import java.util.Iterator;
  */
 interface Dispatcher {
 
+    /**
+     * 事件总线创建完成后调用，用于启动分发器自身的线程等资源
+     *
+     * @param bus 所属事件总线
+     */
+    default void start(EventBus bus) {
+    }
+
     /**
      * 分发事件
      *
-     * @param event       事件
-     * @param subscribers 订阅者Iterator
+     * @param event      事件
+     * @param plan       分发计划，其中的订阅者已按{@link Subscribe#order()}排好序，调用方不可修改
+     * @param completion {@link EventBus#postAsync(Object)}的完成状态，其余为null；
+     *                   分发器自行持有事件时需要先{@link PostCompletion#retain()}，不再持有后释放
+     */
+    void dispatch(Object event, DispatchPlan plan, PostCompletion completion);
+
+    /**
+     * 异步订阅者是否由分发器自己的线程执行，是则不经过订阅者的线程池、信箱和限流
+     *
+     * @return 默认false，异步订阅者提交到线程池
+     */
+    default boolean runsAsyncSubscribers() {
+        return false;
+    }
+
+    /**
+     * 重新投递异步订阅者的一次调用（失败重试、死信重放、批次），只在{@link #runsAsyncSubscribers()}为true时调用，
+     * 由执行该订阅者的分发器线程处理，分发器已关闭时在当前线程执行
+     *
+     * @param subscriber 订阅者
+     * @param payload    事件，可能是{@link QueuedEvent}
+     */
+    default void redeliver(Subscriber subscriber, Object payload) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 关闭分发器，已接收的事件会继续处理完
      */
-    void dispatch(Object event, Iterator<Subscriber> subscribers);
+    default void shutdown() {
+    }
 
 }
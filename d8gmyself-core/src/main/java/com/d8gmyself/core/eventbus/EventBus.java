@@ -1,13 +1,28 @@
 package com.d8gmyself.core.eventbus;
 
+import com.d8gmyself.concurrency.VirtualThreads;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 
 /**
  * 事件总线
@@ -19,20 +34,29 @@ public class EventBus {
     private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
     private final String identifier;
     private final ExecutorService executor;
+    /**
+     * 线程池是否由事件总线创建，是则在{@link #shutdown()}时关闭
+     */
+    private final boolean ownsExecutor;
     private final Dispatcher dispatcher;
     private final SubscriberRegistry subscriberRegistry = new SubscriberRegistry(this);
     private final SubscriberExceptionHandler exceptionHandler;
-
     /**
-     * 创建事件总线
-     *
-     * @param identifier                 总线标识
-     * @param executor                   线程池，用于异步执行订阅者行为
-     * @param subscriberExceptionHandler 订阅者异常处理
+     * 未开启统计时为null
      */
-    private EventBus(String identifier, ExecutorService executor, SubscriberExceptionHandler subscriberExceptionHandler) {
-        this(identifier, executor, new OrderedDispatcher(), subscriberExceptionHandler);
-    }
+    private final EventBusMetrics metrics;
+    /**
+     * 未开启死信队列时为null
+     */
+    private final DeadLetterQueue deadLetterQueue;
+    /**
+     * 未开启慢订阅者检测时为null
+     */
+    private final SubscriberWatchdog watchdog;
+    /**
+     * 定时线程，用于批量订阅者的等待超时等，首次使用时创建
+     */
+    private volatile ScheduledExecutorService scheduler;
 
     /**
      * 创建时间总线
@@ -41,12 +65,18 @@ public class EventBus {
      * 若{@code exceptionHandler}为空，会默认指定{@link DefaultSubscriberExceptionHandler}
      * </p>
      *
-     * @param identifier       总线标识
-     * @param executor         线程池，用于异步执行订阅者行为
-     * @param dispatcher       事件分发器
-     * @param exceptionHandler 订阅者异常处理
+     * @param identifier         总线标识
+     * @param executor           线程池，用于异步执行订阅者行为
+     * @param ownsExecutor       线程池是否由事件总线创建
+     * @param dispatcher         事件分发器
+     * @param exceptionHandler   订阅者异常处理
+     * @param metricsEnabled     是否开启统计
+     * @param deadLetterCapacity 死信队列容量，小于等于0时不保存死信
+     * @param watchdog           慢订阅者检测，不检测时为null
      */
-    private EventBus(String identifier, ExecutorService executor, Dispatcher dispatcher, SubscriberExceptionHandler exceptionHandler) {
+    private EventBus(String identifier, ExecutorService executor, boolean ownsExecutor, Dispatcher dispatcher,
+                     SubscriberExceptionHandler exceptionHandler, boolean metricsEnabled, int deadLetterCapacity,
+                     SubscriberWatchdog watchdog) {
         if (StringUtils.isBlank(identifier)) {
             identifier = "default";
         }
@@ -55,8 +85,16 @@ public class EventBus {
         }
         this.identifier = identifier;
         this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
         this.dispatcher = dispatcher;
         this.exceptionHandler = exceptionHandler;
+        this.metrics = metricsEnabled ? new EventBusMetrics(identifier) : null;
+        this.deadLetterQueue = deadLetterCapacity > 0 ? new DeadLetterQueue(deadLetterCapacity) : null;
+        this.watchdog = watchdog;
+        dispatcher.start(this);
+        if (watchdog != null) {
+            watchdog.start(this);
+        }
     }
 
     /**
@@ -80,16 +118,150 @@ public class EventBus {
         exceptionHandler.handleException(exp, subscriber, subscriberMethod, args);
     }
 
+    /**
+     * 异步订阅者重试用尽后放入死信队列
+     */
+    void deadLetter(Subscriber subscriber, Object event, int attempts, Throwable failure) {
+        if (deadLetterQueue != null) {
+            deadLetterQueue.add(new DeadLetter(subscriber, event, attempts, failure));
+        }
+    }
+
+    /**
+     * 移除已取消订阅的订阅者的死信
+     */
+    void removeDeadLetters(Subscriber subscriber) {
+        if (deadLetterQueue != null) {
+            deadLetterQueue.remove(subscriber);
+        }
+    }
+
+    /**
+     * 把异步订阅者的一次调用交回分发器线程，参见{@link Dispatcher#redeliver(Subscriber, Object)}
+     */
+    void redeliver(Subscriber subscriber, Object payload) {
+        dispatcher.redeliver(subscriber, payload);
+    }
+
     /**
      * 发布事件
      *
      * @param event 要发布的事件
      */
     public void post(Object event) {
-        Iterator<Subscriber> subscribers = subscriberRegistry.getSubscribers(event);
-        if (subscribers.hasNext()) {
-            dispatcher.dispatch(event, subscribers);
+        dispatch(event, subscriberRegistry.getDispatchPlan(event.getClass()), null);
+    }
+
+    /**
+     * 发布事件，并在所有订阅者（包括同步和异步）处理完成后完成返回的{@link CompletionStage}
+     * <p>
+     * 订阅者抛出的异常仍交给{@link SubscriberExceptionHandler}处理，同时汇总为{@link PostFailedException}；
+     * 批量订阅者在所在批次处理完成后才算完成，被合并跳过的事件视为已完成；
+     * 没有订阅者时直接完成。日志模式下重启后回放的事件不再跟踪。
+     * 调用方完成或取消返回的{@link CompletionStage}不影响订阅者的处理
+     * </p>
+     *
+     * @param event 要发布的事件
+     * @return 处理完成状态
+     */
+    public CompletionStage<Void> postAsync(Object event) {
+        return postAsync(null, event);
+    }
+
+    /**
+     * 发布事件到主题
+     * <p>
+     * 事件交给不按主题过滤、且类型匹配的订阅者，以及{@link Subscribe#topic()}与{@code topic}匹配、且类型匹配的订阅者
+     * </p>
+     *
+     * @param topic 主题，以{@code .}分隔的多级名称，如{@code order.123.paid}
+     * @param event 要发布的事件
+     */
+    public void post(String topic, Object event) {
+        dispatch(event, subscriberRegistry.getDispatchPlan(event.getClass(), checkTopic(topic)), null);
+    }
+
+    /**
+     * 发布事件到主题，并在所有订阅者处理完成后完成返回的{@link CompletionStage}，
+     * 参见{@link #post(String, Object)}和{@link #postAsync(Object)}
+     *
+     * @param topic 主题，为null时不按主题发布
+     * @param event 要发布的事件
+     * @return 处理完成状态
+     */
+    public CompletionStage<Void> postAsync(String topic, Object event) {
+        PostCompletion completion = new PostCompletion();
+        Throwable failure = null;
+        try {
+            dispatch(event, subscriberRegistry.getDispatchPlan(event.getClass(), topic == null ? null : checkTopic(topic)), completion);
+        } catch (Throwable e) {
+            failure = e;
+        }
+        // 释放发布线程自身持有的计数
+        completion.onComplete(failure);
+        // 返回单独的stage，调用方无法提前完成或锁住内部的完成状态
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        completion.whenComplete((ignored, e) -> {
+            if (e == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 批量发布事件
+     * <p>
+     * 每种事件类型只查找一次订阅者，事件按集合顺序逐个分发；
+     * 全部分发完成后，批量订阅者中缓冲的事件会立即处理，不再等待{@link Subscribe#lingerMillis()}
+     * </p>
+     *
+     * @param events 要发布的事件
+     */
+    public void postAll(Collection<?> events) {
+        Map<Class<?>, DispatchPlan> plans = new IdentityHashMap<>();
+        Class<?> lastEventClass = null;
+        DispatchPlan plan = null;
+        for (Object event : events) {
+            Class<?> eventClass = event.getClass();
+            if (eventClass != lastEventClass) {
+                plan = plans.get(eventClass);
+                if (plan == null) {
+                    plan = subscriberRegistry.getDispatchPlan(eventClass);
+                    plans.put(eventClass, plan);
+                }
+                lastEventClass = eventClass;
+            }
+            dispatch(event, plan, null);
+        }
+        for (DispatchPlan eventPlan : plans.values()) {
+            eventPlan.flushBatches();
+        }
+    }
+
+    private static String checkTopic(String topic) {
+        checkArgument(StringUtils.isNotBlank(topic), "topic不能为空");
+        return topic;
+    }
+
+    private void dispatch(Object event, DispatchPlan plan, PostCompletion completion) {
+        StickyEventRing stickyRing = plan.getStickyRing();
+        if (stickyRing != null) {
+            stickyRing.add(event, plan.getTopic());
+            if (plan.isStale()) {
+                // 与注册并发时按新的分发计划分发，新注册的订阅者不会漏掉该事件
+                plan = subscriberRegistry.getDispatchPlan(event.getClass(), plan.getTopic());
+            }
+        }
+        Subscriber[] subscribers = plan.getSubscribers();
+        if (subscribers.length > 0) {
+            dispatcher.dispatch(event, plan, completion);
         } else if (!(event instanceof DeadEvent)) {
+            if (metrics != null) {
+                metrics.recordDeadEvent();
+            }
             post(new DeadEvent(this, event));
         } else {
             logger.warn("事件:{}未被任何listener处理，系统未配置DeadEventListener", event);
@@ -98,11 +270,22 @@ public class EventBus {
 
     /**
      * 注册订阅者
+     * <p>
+     * 同一对象重复注册时返回已有的订阅关系；频繁注册、取消的订阅者建议通过返回的{@link Subscription}取消订阅
+     * </p>
      *
      * @param object 订阅者所在对象
+     * @return 订阅关系
+     */
+    public Subscription register(Object object) {
+        return subscriberRegistry.register(object);
+    }
+
+    /**
+     * 把一个订阅方法按指定的事件类型分别注册，参见{@link SubscriberRegistry#register(Object, Method, Class[])}
      */
-    public void register(Object object) {
-        subscriberRegistry.register(object);
+    Subscription register(Object object, Method method, Class<?>... eventTypes) {
+        return subscriberRegistry.register(object, method, eventTypes);
     }
 
     /**
@@ -114,6 +297,40 @@ public class EventBus {
         subscriberRegistry.unregister(object);
     }
 
+    /**
+     * 开始回放并消费持久化日志
+     * <p>
+     * 日志模式下事件总线创建后不会立即消费日志，需在注册完所有订阅者后调用，
+     * 从上次提交的位置开始处理（包括上次运行未处理完的事件），之后持续处理新事件；重复调用无效
+     * </p>
+     *
+     * @throws IllegalStateException 未通过{@link EventBusBuilder#setJournal(Path, int, EventCodec)}开启日志模式
+     */
+    public void replayJournal() {
+        checkState(dispatcher instanceof JournalDispatcher, "未开启日志模式");
+        ((JournalDispatcher) dispatcher).startConsuming();
+    }
+
+    /**
+     * 关闭事件总线，分发器中已接收的事件会继续处理完
+     * <p>
+     * 通过{@link EventBusBuilder#setExecutor(ExecutorService)}传入的线程池由调用方自行关闭
+     * </p>
+     */
+    public void shutdown() {
+        dispatcher.shutdown();
+        if (watchdog != null) {
+            watchdog.shutdown();
+        }
+        ScheduledExecutorService currentScheduler = this.scheduler;
+        if (currentScheduler != null) {
+            currentScheduler.shutdown();
+        }
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
     /**
      * 获取事件总线标识
      *
@@ -123,6 +340,43 @@ public class EventBus {
         return this.identifier;
     }
 
+    /**
+     * 获取统计信息
+     *
+     * @return 未通过{@link EventBusBuilder#setMetricsEnabled(boolean)}开启统计时为空
+     */
+    public Optional<EventBusMetrics> getMetrics() {
+        return Optional.ofNullable(metrics);
+    }
+
+    /**
+     * 获取死信队列
+     *
+     * @return 通过{@link EventBusBuilder#setDeadLetterCapacity(int)}关闭死信队列时为空
+     */
+    public Optional<DeadLetterQueue> getDeadLetterQueue() {
+        return Optional.ofNullable(deadLetterQueue);
+    }
+
+    final DispatchPlan getDispatchPlan(Class<?> eventClass, String topic) {
+        return subscriberRegistry.getDispatchPlan(eventClass, topic);
+    }
+
+    /**
+     * 异步订阅者是否由分发器自己的线程执行（环形队列、日志和分片模式）
+     */
+    final boolean dispatcherRunsAsyncSubscribers() {
+        return dispatcher.runsAsyncSubscribers();
+    }
+
+    final EventBusMetrics metrics() {
+        return this.metrics;
+    }
+
+    final SubscriberWatchdog watchdog() {
+        return this.watchdog;
+    }
+
     /**
      * 获取线程池
      *
@@ -132,6 +386,28 @@ public class EventBus {
         return this.executor;
     }
 
+    /**
+     * 获取定时线程，首次调用时创建
+     *
+     * @return 定时线程池
+     */
+    final ScheduledExecutorService scheduler() {
+        ScheduledExecutorService currentScheduler = this.scheduler;
+        if (currentScheduler == null) {
+            synchronized (this) {
+                currentScheduler = this.scheduler;
+                if (currentScheduler == null) {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                            new ThreadFactoryBuilder().setNameFormat("EventBus-" + identifier + "-timer-%d").setDaemon(true).build());
+                    executor.setRemoveOnCancelPolicy(true);
+                    currentScheduler = executor;
+                    this.scheduler = currentScheduler;
+                }
+            }
+        }
+        return currentScheduler;
+    }
+
     @Override
     public String toString() {
         return "EventBus{" +
@@ -158,12 +434,70 @@ public class EventBus {
         private String identifier;
         private ExecutorService executor;
         private SubscriberExceptionHandler subscriberExceptionHandler;
+        private int ringBufferSize;
+        private WaitStrategy waitStrategy;
+        private boolean metricsEnabled;
+        private boolean virtualThreads;
+        private Path journalDirectory;
+        private int journalSegmentSize;
+        private EventCodec journalCodec;
+        private int deadLetterCapacity = DeadLetterQueue.DEFAULT_CAPACITY;
+        private long latencyBudgetMillis;
+        private boolean isolateSlowSubscribers;
+        private SlowSubscriberHandler slowSubscriberHandler;
+        private boolean sharded;
+        private int shardedLanes;
+        private KeyExtractor<Object> routingKeyExtractor;
 
         private EventBusBuilder() {
         }
 
         public EventBus build() {
-            return new EventBus(this.identifier, this.executor, this.subscriberExceptionHandler);
+            checkState(this.journalDirectory == null || this.ringBufferSize <= 0, "日志模式和环形队列不能同时开启");
+            checkState(!this.sharded || (this.journalDirectory == null && this.ringBufferSize <= 0), "分片模式不能和日志模式、环形队列同时开启");
+            checkState(!this.isolateSlowSubscribers || this.latencyBudgetMillis <= 0 || (!this.sharded && this.journalDirectory == null && this.ringBufferSize <= 0),
+                    "环形队列、日志和分片模式下异步订阅者在分发器线程中执行，不支持隔离慢订阅者");
+            Dispatcher dispatcher;
+            if (this.sharded) {
+                int lanes = this.shardedLanes > 0 ? this.shardedLanes : Runtime.getRuntime().availableProcessors();
+                dispatcher = new ShardedDispatcher(lanes, this.routingKeyExtractor, this.waitStrategy == null ? WaitStrategy.PARKING : this.waitStrategy);
+            } else if (this.journalDirectory != null) {
+                dispatcher = createJournalDispatcher();
+            } else if (this.ringBufferSize > 0) {
+                dispatcher = new RingBufferDispatcher(this.ringBufferSize, this.waitStrategy == null ? WaitStrategy.PARKING : this.waitStrategy);
+            } else {
+                dispatcher = new OrderedDispatcher();
+            }
+            ExecutorService busExecutor = this.executor;
+            boolean ownsExecutor = false;
+            if (this.virtualThreads) {
+                if (VirtualThreads.isSupported()) {
+                    busExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor(
+                            "EventBus-" + StringUtils.defaultIfBlank(this.identifier, "default") + "-vt-");
+                    ownsExecutor = true;
+                } else {
+                    logger.warn("virtual threads require Java 21+, EventBus falls back to executor: {}", this.executor);
+                }
+            }
+            return new EventBus(this.identifier, busExecutor, ownsExecutor, dispatcher, this.subscriberExceptionHandler, this.metricsEnabled,
+                    this.deadLetterCapacity, createWatchdog());
+        }
+
+        private SubscriberWatchdog createWatchdog() {
+            if (this.latencyBudgetMillis <= 0) {
+                return null;
+            }
+            return new SubscriberWatchdog(this.latencyBudgetMillis, this.isolateSlowSubscribers, this.slowSubscriberHandler);
+        }
+
+        private Dispatcher createJournalDispatcher() {
+            int segmentSize = this.journalSegmentSize > 0 ? this.journalSegmentSize : EventJournal.DEFAULT_SEGMENT_SIZE;
+            EventCodec codec = this.journalCodec == null ? new SerializableEventCodec() : this.journalCodec;
+            try {
+                return new JournalDispatcher(new EventJournal(this.journalDirectory, segmentSize), codec);
+            } catch (IOException e) {
+                throw new UncheckedIOException("打开事件日志失败: " + this.journalDirectory, e);
+            }
         }
 
         public EventBusBuilder setIdentifier(String identifier) {
@@ -180,6 +514,133 @@ public class EventBus {
             this.subscriberExceptionHandler = subscriberExceptionHandler;
             return this;
         }
+
+        /**
+         * 使用环形队列分发异步订阅者，异步订阅者由单独的消费者线程按顺序执行，不再提交到{@code executor}，
+         * 因此不能配置{@link Subscribe#partitionKey()}、{@link Subscribe#conflationKey()}和限流
+         *
+         * @param bufferSize   队列大小，必须是2的幂
+         * @param waitStrategy 消费者等待策略，为空时默认{@link WaitStrategy#PARKING}
+         * @return this
+         */
+        public EventBusBuilder setRingBuffer(int bufferSize, WaitStrategy waitStrategy) {
+            this.ringBufferSize = bufferSize;
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+
+        /**
+         * 开启分片模式，异步订阅者由多个单线程通道执行，不再提交到{@code executor}
+         * <p>
+         * 每个通道有独立的队列，多个线程同时发布时不会集中竞争同一个队列。{@code allowConcurrency = false}的异步订阅者固定由一个通道执行；
+         * 其余异步订阅者指定路由key时按key选择通道，同一key的事件按发布顺序处理；未指定时各发布线程轮流选择通道，
+         * 空闲的通道会窃取其他通道堆积的事件，此时异步事件之间没有顺序保证。不能和{@link #setRingBuffer(int, WaitStrategy)}、{@link #setJournal(Path, int, EventCodec)}同时使用，
+         * 异步订阅者不能配置{@link Subscribe#partitionKey()}、{@link Subscribe#conflationKey()}和限流
+         * </p>
+         *
+         * @param lanes        通道数，小于等于0时为CPU核数
+         * @param routingKey   从事件中提取路由key，为空时轮询分配
+         * @param waitStrategy 通道线程等待策略，为空时默认{@link WaitStrategy#PARKING}
+         * @return this
+         */
+        @SuppressWarnings("unchecked")
+        public EventBusBuilder setSharded(int lanes, KeyExtractor<?> routingKey, WaitStrategy waitStrategy) {
+            this.sharded = true;
+            this.shardedLanes = lanes;
+            this.routingKeyExtractor = (KeyExtractor<Object>) routingKey;
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+
+        /**
+         * 是否开启统计，开启后可通过{@link EventBus#getMetrics()}获取每个事件处理方法的调用次数、异常次数、耗时和异步排队时间
+         *
+         * @param metricsEnabled 是否开启，默认不开启
+         * @return this
+         */
+        public EventBusBuilder setMetricsEnabled(boolean metricsEnabled) {
+            this.metricsEnabled = metricsEnabled;
+            return this;
+        }
+
+        /**
+         * 死信队列容量，异步订阅者重试用尽后仍失败的事件保存在死信队列中，可通过{@link EventBus#getDeadLetterQueue()}查看和重新投递
+         *
+         * @param deadLetterCapacity 容量，默认1000，小于等于0时不保存死信
+         * @return this
+         */
+        public EventBusBuilder setDeadLetterCapacity(int deadLetterCapacity) {
+            this.deadLetterCapacity = deadLetterCapacity;
+            return this;
+        }
+
+        /**
+         * 开启慢订阅者检测，订阅者单次执行超过耗时预算时采样执行线程的调用栈，交给{@link SlowSubscriberHandler}
+         * <p>
+         * 开启隔离时，超时的异步订阅者之后的事件改为在它独占的线程池中执行，不再占用共享的{@code executor}，隔离后不会恢复；
+         * 同步订阅者只检测不隔离；环形队列、日志和分片模式下异步订阅者在分发器线程中执行，不能开启隔离
+         * </p>
+         *
+         * @param latencyBudgetMillis    单次执行的耗时预算（毫秒），小于等于0时不检测，默认不检测
+         * @param isolateSlowSubscribers 是否隔离超时的异步订阅者
+         * @return this
+         * @see #build() 环形队列、日志或分片模式下开启隔离时抛出{@link IllegalStateException}
+         */
+        public EventBusBuilder setWatchdog(long latencyBudgetMillis, boolean isolateSlowSubscribers) {
+            this.latencyBudgetMillis = latencyBudgetMillis;
+            this.isolateSlowSubscribers = isolateSlowSubscribers;
+            return this;
+        }
+
+        /**
+         * 慢订阅者处理，为空时记录日志，需要通过{@link #setWatchdog(long, boolean)}开启检测
+         *
+         * @param slowSubscriberHandler 慢订阅者处理
+         * @return this
+         */
+        public EventBusBuilder setSlowSubscriberHandler(SlowSubscriberHandler slowSubscriberHandler) {
+            this.slowSubscriberHandler = slowSubscriberHandler;
+            return this;
+        }
+
+        /**
+         * 异步订阅者是否使用虚拟线程执行，每个任务一个虚拟线程，适合阻塞IO的订阅者
+         * <p>
+         * 需要Java 21及以上，此时优先于{@link #setExecutor(ExecutorService)}，线程池在{@link EventBus#shutdown()}时关闭；
+         * 低版本Java仍使用{@link #setExecutor(ExecutorService)}设置的线程池
+         * </p>
+         *
+         * @param virtualThreads 是否使用虚拟线程，默认不使用
+         * @return this
+         */
+        public EventBusBuilder setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * 开启日志模式，异步事件先写入内存映射的持久化日志，再由单独的消费者线程按顺序执行异步订阅者，不再提交到{@code executor}
+         * <p>
+         * 订阅者处理完成后才提交消费位置，进程重启后调用{@link EventBus#replayJournal()}从上次提交的位置继续处理，
+         * 事件至少被处理一次；堆积的事件只占用磁盘，不占用堆内存。不能和{@link #setRingBuffer(int, WaitStrategy)}同时使用，
+         * 异步订阅者不能配置{@link Subscribe#partitionKey()}、{@link Subscribe#conflationKey()}和限流
+         * </p>
+         * <p>
+         * 所有异步订阅者都在这一个消费者线程中逐个串行执行，不再并行：一个订阅者耗时较长会推迟之后所有事件的处理，
+         * 吞吐量受限于单线程，耗时的处理需要由订阅者自行转交其他线程
+         * </p>
+         *
+         * @param directory  日志目录，同一时刻只能被一个事件总线使用，已被其他事件总线（包括其他进程）使用时{@link #build()}抛出{@link IllegalStateException}
+         * @param segmentSize 日志分段文件大小，单个事件编码后不能超过该大小，小于等于0时默认64MB
+         * @param codec       事件编解码，为空时默认使用Java序列化，事件需要实现{@link java.io.Serializable}
+         * @return this
+         */
+        public EventBusBuilder setJournal(Path directory, int segmentSize, EventCodec codec) {
+            this.journalDirectory = directory;
+            this.journalSegmentSize = segmentSize;
+            this.journalCodec = codec;
+            return this;
+        }
     }
 
 }
@@ -0,0 +1,73 @@
+package com.d8gmyself.core.eventbus;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 事件总线统计，通过{@link EventBus.EventBusBuilder#setMetricsEnabled(boolean)}开启
+ * <p>
+ * 所有计数都是单调递增的累计值，速率由上报方按采集间隔计算
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class EventBusMetrics {
+
+    private final String identifier;
+    private final LongAdder deadEvents = new LongAdder();
+    private final ConcurrentMap<Method, SubscriberMetrics> subscriberMetrics = new ConcurrentHashMap<>();
+
+    EventBusMetrics(String identifier) {
+        this.identifier = identifier;
+    }
+
+    SubscriberMetrics subscriberMetrics(Method method) {
+        return subscriberMetrics.computeIfAbsent(method, key -> new SubscriberMetrics(key.getDeclaringClass().getName() + "#" + key.getName()
+                + Arrays.stream(key.getParameterTypes()).map(Class::getName).collect(Collectors.joining(",", "(", ")"))));
+    }
+
+    void recordDeadEvent() {
+        deadEvents.increment();
+    }
+
+    /**
+     * @return 事件总线标识
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return 没有任何订阅者处理的事件数
+     */
+    public long getDeadEventCount() {
+        return deadEvents.sum();
+    }
+
+    /**
+     * @return 各事件处理方法的统计，key为{@link SubscriberMetrics#getName()}
+     */
+    public Map<String, SubscriberMetrics> getSubscriberMetrics() {
+        Map<String, SubscriberMetrics> result = new LinkedHashMap<>();
+        for (SubscriberMetrics metrics : subscriberMetrics.values()) {
+            result.put(metrics.getName(), metrics);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return "EventBusMetrics{" +
+                "identifier='" + identifier + '\'' +
+                ", deadEvents=" + getDeadEventCount() +
+                ", subscribers=" + subscriberMetrics.values() +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package com.d8gmyself.core.eventbus;
+
+import java.io.IOException;
+
+/**
+ * 事件编解码，用于把异步事件写入持久化日志
+ * <p>
+ * 编码结果需要包含还原事件所需的类型信息，解码时只根据字节内容还原事件
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public interface EventCodec {
+
+    /**
+     * 编码
+     *
+     * @param event 事件
+     * @return 编码结果，不能为空数组
+     * @throws IOException 事件无法编码
+     */
+    byte[] encode(Object event) throws IOException;
+
+    /**
+     * 解码
+     *
+     * @param data {@link #encode(Object)}的结果
+     * @return 事件
+     * @throws IOException 数据无法解码
+     */
+    Object decode(byte[] data) throws IOException;
+
+}
@@ -0,0 +1,423 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 基于内存映射文件的追加写事件日志，多生产者、单消费者
+ * <p>
+ * 日志由多个定长分段文件组成，文件名为分段起始位置；每条记录为
+ * {@code [int 长度][int CRC32][数据]}，写入时先写数据再写长度，长度非0即表示记录完整。
+ * 分段剩余空间不足时写入结束标记并创建下一个分段。
+ * 消费位置提交到{@code consumer.offset}，已全部消费的分段会被删除；重启后从提交位置继续读取，
+ * 并从最后一个分段中找到最后一条完整记录作为写入位置。
+ * 数据写入映射内存即对进程崩溃可靠，对操作系统崩溃的可靠性取决于page cache刷盘。
+ * 删除分段和关闭日志时立即解除映射，不等待buffer被回收。
+ * 打开时对{@code consumer.offset}加排他文件锁，同一目录同时只能被一个日志打开，包括其他进程。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class EventJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventJournal.class);
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String OFFSET_FILE = "consumer.offset";
+    private static final int HEADER_SIZE = 8;
+    private static final int END_OF_SEGMENT = -1;
+    /**
+     * 解除内存映射，当前JVM不支持时为null，映射在buffer被回收后释放
+     */
+    private static final Consumer<ByteBuffer> UNMAPPER = createUnmapper();
+
+    private final Path directory;
+    private final int segmentSize;
+    /**
+     * 分段起始位置-分段
+     */
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    /**
+     * 记录结束位置-内存中的附加信息，不持久化
+     */
+    private final ConcurrentMap<Long, Object> attachments = new ConcurrentHashMap<>();
+    private final FileChannel offsetChannel;
+    private final MappedByteBuffer offsetBuffer;
+    /**
+     * 当前写入分段，持有锁时访问
+     */
+    private Segment writeSegment;
+    /**
+     * 已写入的位置，消费者只读取该位置之前的记录
+     */
+    private volatile long writeOffset;
+    /**
+     * 当前读取分段和读取位置，只在消费线程中访问
+     */
+    private Segment readSegment;
+    private long readOffset;
+    private Object readAttachment;
+    private boolean closed;
+
+    /**
+     * @param directory   日志目录，不存在时创建
+     * @param segmentSize 新建分段的大小
+     * @throws IOException           打开或恢复日志失败
+     * @throws IllegalStateException 目录已被其他日志打开
+     */
+    EventJournal(Path directory, int segmentSize) throws IOException {
+        checkArgument(segmentSize > HEADER_SIZE, "segmentSize过小");
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.offsetChannel = FileChannel.open(directory.resolve(OFFSET_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lockDirectory();
+            this.offsetBuffer = offsetChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+            open();
+        } catch (IOException | RuntimeException e) {
+            // 关闭文件同时释放锁
+            for (Segment segment : segments.values()) {
+                closeQuietly(segment);
+            }
+            offsetChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 进程内其他日志持有锁时抛出{@link OverlappingFileLockException}，其他进程持有时返回null
+     */
+    private void lockDirectory() throws IOException {
+        FileLock lock;
+        try {
+            lock = offsetChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IllegalStateException("事件日志目录已被其他事件总线使用: " + directory);
+        }
+    }
+
+    /**
+     * 加载分段，从提交位置开始读取，并恢复写入位置
+     */
+    private void open() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                long base = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+                segments.put(base, Segment.open(file, base));
+            }
+        }
+        long committed = offsetBuffer.getLong(0);
+        if (segments.isEmpty()) {
+            segments.put(committed, createSegment(committed));
+        }
+        Map.Entry<Long, Segment> committedSegment = segments.floorEntry(committed);
+        if (committedSegment == null) {
+            committedSegment = segments.firstEntry();
+            committed = committedSegment.getKey();
+        }
+        this.readSegment = committedSegment.getValue();
+        this.readOffset = Math.min(committed, readSegment.end());
+        deleteSegmentsBefore(readSegment.base);
+
+        Segment lastSegment = segments.lastEntry().getValue();
+        int recoverFrom = lastSegment == readSegment ? (int) (readOffset - lastSegment.base) : 0;
+        this.writeSegment = lastSegment;
+        this.writeOffset = lastSegment.base + recover(lastSegment, recoverFrom);
+    }
+
+    /**
+     * 找到分段中最后一条完整记录的结束位置，并清除之后未写完的数据
+     */
+    private static int recover(Segment segment, int from) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = from;
+        while (segment.size - position >= HEADER_SIZE) {
+            int length = buffer.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                // 已写入结束标记但下一个分段尚未创建，下次写入时直接切换分段
+                return segment.size;
+            }
+            if (length <= 0 || length > segment.size - position - HEADER_SIZE) {
+                break;
+            }
+            byte[] payload = read(buffer, position + HEADER_SIZE, length);
+            if (buffer.getInt(position + Integer.BYTES) != crc(payload)) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        if (position < segment.size && buffer.getInt(position) != 0) {
+            logger.warn("event journal segment {} has incomplete record at {}, truncated", segment.base, position);
+            for (int i = position; i < segment.size; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param payload    记录内容
+     * @param attachment 只保存在内存中的附加信息，读取该记录后可通过{@link #attachment()}获取，重启后丢失；可以为null
+     * @return 日志已关闭时返回false
+     * @throws IOException 创建分段失败
+     */
+    synchronized boolean append(byte[] payload, Object attachment) throws IOException {
+        if (closed) {
+            return false;
+        }
+        int recordSize = HEADER_SIZE + payload.length;
+        checkArgument(payload.length > 0 && recordSize <= segmentSize, "记录长度必须在1到%s之间", segmentSize - HEADER_SIZE);
+        int position = (int) (writeOffset - writeSegment.base);
+        if (recordSize > writeSegment.size - position) {
+            if (writeSegment.size - position >= Integer.BYTES) {
+                writeSegment.buffer.putInt(position, END_OF_SEGMENT);
+            }
+            long base = writeSegment.end();
+            Segment next = createSegment(base);
+            segments.put(base, next);
+            writeSegment = next;
+            position = 0;
+        }
+        ByteBuffer buffer = writeSegment.buffer.duplicate();
+        buffer.position(position + HEADER_SIZE);
+        buffer.put(payload);
+        writeSegment.buffer.putInt(position + Integer.BYTES, crc(payload));
+        writeSegment.buffer.putInt(position, payload.length);
+        long end = writeSegment.base + position + recordSize;
+        if (attachment != null) {
+            attachments.put(end, attachment);
+        }
+        writeOffset = end;
+        return true;
+    }
+
+    /**
+     * 读取下一条记录，只能在消费线程中调用
+     *
+     * @return 没有新记录时返回null
+     */
+    byte[] poll() {
+        while (readOffset < writeOffset) {
+            int position = (int) (readOffset - readSegment.base);
+            if (readSegment.size - position < HEADER_SIZE || readSegment.buffer.getInt(position) == END_OF_SEGMENT) {
+                Segment next = segments.get(readSegment.end());
+                if (next == null) {
+                    return null;
+                }
+                readSegment = next;
+                readOffset = next.base;
+                continue;
+            }
+            int length = readSegment.buffer.getInt(position);
+            byte[] payload = read(readSegment.buffer, position + HEADER_SIZE, length);
+            readOffset += HEADER_SIZE + length;
+            readAttachment = attachments.isEmpty() ? null : attachments.remove(readOffset);
+            return payload;
+        }
+        return null;
+    }
+
+    /**
+     * 上一次{@link #poll()}返回的记录的附加信息，只能在消费线程中调用
+     */
+    Object attachment() {
+        return readAttachment;
+    }
+
+    /**
+     * 提交消费位置，并删除已全部消费的分段，只能在消费线程中调用
+     */
+    void commit() {
+        offsetBuffer.putLong(0, readOffset);
+        deleteSegmentsBefore(readSegment.base);
+    }
+
+    boolean hasUnread() {
+        return readOffset < writeOffset;
+    }
+
+    /**
+     * 没有未读取的记录时关闭，与{@link #append(byte[], Object)}互斥：
+     * 返回true后追加都返回false，返回false时说明仍有记录需要读取，只能在消费线程中调用
+     *
+     * @return 是否已关闭
+     */
+    synchronized boolean closeIfDrained() {
+        if (hasUnread()) {
+            return false;
+        }
+        close();
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        offsetBuffer.force();
+        // 由消费线程退出时或未开始消费时关闭，之后不会再访问映射内存
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            closeQuietly(segment);
+        }
+        unmap(offsetBuffer);
+        try {
+            offsetChannel.close();
+        } catch (IOException e) {
+            logger.warn("close event journal offset file failed, directory:{}", directory, e);
+        }
+    }
+
+    private void deleteSegmentsBefore(long base) {
+        for (Segment segment : segments.headMap(base).values()) {
+            segments.remove(segment.base);
+            // 读写位置都已越过该分段，不会再被访问；先解除映射，避免删除后文件空间直到buffer被回收才释放
+            closeQuietly(segment);
+            try {
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                logger.warn("delete consumed event journal segment failed, file:{}", segment.file, e);
+            }
+        }
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(file, base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    private static void closeQuietly(Segment segment) {
+        unmap(segment.buffer);
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            logger.warn("close event journal segment failed, file:{}", segment.file, e);
+        }
+    }
+
+    /**
+     * 解除映射，之后不能再访问该buffer
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER == null) {
+            return;
+        }
+        try {
+            UNMAPPER.accept(buffer);
+        } catch (RuntimeException e) {
+            logger.warn("unmap event journal buffer failed, released on gc", e);
+        }
+    }
+
+    /**
+     * Java 9及以上通过{@code Unsafe.invokeCleaner}，Java 8通过{@code DirectBuffer.cleaner()}解除映射
+     */
+    private static Consumer<ByteBuffer> createUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Object unsafe = theUnsafe.get(null);
+                return buffer -> invokeQuietly(invokeCleaner, unsafe, buffer);
+            } catch (NoSuchMethodException e) {
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return buffer -> {
+                    Object bufferCleaner = invokeQuietly(cleaner, buffer);
+                    if (bufferCleaner != null) {
+                        invokeQuietly(clean, bufferCleaner);
+                    }
+                };
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("unmapping is not supported, event journal segments are released on gc, reason:{}", e.toString());
+            return null;
+        }
+    }
+
+    private static Object invokeQuietly(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] read(MappedByteBuffer buffer, int position, int length) {
+        byte[] payload = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position);
+        source.get(payload);
+        return payload;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final long base;
+        private final int size;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path file, long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.base = base;
+            this.size = buffer.capacity();
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path file, long base) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(file, base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        long end() {
+            return base + size;
+        }
+    }
+
+}
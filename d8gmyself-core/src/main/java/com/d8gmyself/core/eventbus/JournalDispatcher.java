@@ -0,0 +1,282 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 基于持久化日志的事件分发
+ * <p>
+ * 同步订阅者仍在发布线程中按顺序执行；存在异步订阅者时，事件经{@link EventCodec}编码后追加到{@link EventJournal}，
+ * 由单独的消费者线程读取、解码，并按顺序执行当前注册的异步订阅者，处理完成后才提交消费位置，
+ * 因此重启后未提交的事件会被再次处理（至少一次）。
+ * 堆积的事件只占用磁盘空间，不占用堆内存。
+ * 消费者线程在{@link #startConsuming()}后才启动，以便重启时先注册好所有订阅者再回放。
+ * </p>
+ * <p>
+ * 异步订阅者的重试和死信重放不写入日志，放入内存队列后同样由消费者线程执行，进程重启后丢失。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+class JournalDispatcher implements Dispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalDispatcher.class);
+
+    /**
+     * 连续处理多少条记录后提交一次消费位置
+     */
+    private static final int COMMIT_INTERVAL = 256;
+
+    private final EventJournal journal;
+    private final EventCodec codec;
+    private EventBus bus;
+    private volatile boolean running;
+    private volatile boolean consumerWaiting;
+    private volatile Thread consumer;
+    /**
+     * 重新投递的订阅者调用，只由消费者线程取出
+     */
+    private final MpscLinkedQueue<Runnable> redeliveries = new MpscLinkedQueue<>();
+    /**
+     * 消费者线程已退出，之后重新投递的调用由投递线程执行
+     */
+    private volatile boolean terminated;
+    private final Object drainLock = new Object();
+
+    JournalDispatcher(EventJournal journal, EventCodec codec) {
+        this.journal = checkNotNull(journal);
+        this.codec = checkNotNull(codec);
+    }
+
+    @Override
+    public void start(EventBus bus) {
+        this.bus = bus;
+        this.running = true;
+    }
+
+    /**
+     * 启动消费者线程，从上次提交的位置开始处理日志，重复调用无效
+     */
+    synchronized void startConsuming() {
+        if (consumer != null || !running) {
+            return;
+        }
+        Thread thread = new Thread(this::consume, "EventBus-" + bus.identifier() + "-journal");
+        thread.setDaemon(true);
+        this.consumer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void dispatch(Object event, DispatchPlan plan, PostCompletion completion) {
+        Subscriber[] subscribers = plan.getSubscribers();
+        boolean hasAsync = false;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isAsync()) {
+                hasAsync = true;
+            } else {
+                subscriber.processEventInCurrentThread(event, completion);
+            }
+        }
+        if (!hasAsync) {
+            return;
+        }
+        if (completion != null) {
+            // 在消费者线程执行完异步订阅者后释放，重启后回放的事件不再跟踪
+            completion.retain();
+        }
+        boolean appended;
+        try {
+            appended = running && append(event, plan.getTopic(), completion);
+        } catch (RuntimeException e) {
+            if (completion != null) {
+                completion.onComplete(e);
+            }
+            throw e;
+        }
+        if (appended) {
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+        } else {
+            // 已关闭，由发布线程自己执行
+            invokeAsyncSubscribers(event, subscribers, completion);
+        }
+    }
+
+    /**
+     * 记录格式为{@code [int 主题长度，无主题时为-1][主题UTF-8][事件编码]}
+     */
+    private boolean append(Object event, String topic, PostCompletion completion) {
+        byte[] payload;
+        try {
+            byte[] encodedEvent = codec.encode(event);
+            byte[] encodedTopic = topic == null ? null : topic.getBytes(StandardCharsets.UTF_8);
+            int topicLength = encodedTopic == null ? 0 : encodedTopic.length;
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + topicLength + encodedEvent.length);
+            buffer.putInt(encodedTopic == null ? -1 : topicLength);
+            if (encodedTopic != null) {
+                buffer.put(encodedTopic);
+            }
+            payload = buffer.put(encodedEvent).array();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("事件无法编码: " + event.getClass().getName(), e);
+        }
+        try {
+            return journal.append(payload, completion);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入事件日志失败", e);
+        }
+    }
+
+    @Override
+    public void redeliver(Subscriber subscriber, Object payload) {
+        Runnable redelivery = () -> subscriber.invokeSubscriberMethod(payload);
+        if (consumer == null) {
+            // 未开始消费，不会有消费者线程执行
+            redelivery.run();
+            return;
+        }
+        redeliveries.offer(redelivery);
+        if (terminated) {
+            // 投递时消费者线程恰好退出
+            drainRedeliveries();
+        } else if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    @Override
+    public boolean runsAsyncSubscribers() {
+        return true;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        running = false;
+        Thread thread = consumer;
+        if (thread != null) {
+            // 由消费者线程处理完已写入的事件后关闭日志
+            LockSupport.unpark(thread);
+        } else {
+            // 未开始消费，事件留在日志中等待下次启动后回放
+            journal.close();
+        }
+    }
+
+    private void consume() {
+        try {
+            int uncommitted = 0;
+            while (true) {
+                Runnable redelivery = redeliveries.poll();
+                if (redelivery != null) {
+                    runRedelivery(redelivery);
+                    continue;
+                }
+                byte[] payload = journal.poll();
+                if (payload != null) {
+                    process(payload, (PostCompletion) journal.attachment());
+                    if (++uncommitted >= COMMIT_INTERVAL) {
+                        journal.commit();
+                        uncommitted = 0;
+                    }
+                    continue;
+                }
+                if (uncommitted > 0) {
+                    journal.commit();
+                    uncommitted = 0;
+                }
+                // 检查和关闭日志在同一个锁内，关闭后的追加返回false，由发布线程自己执行，不会遗漏在日志中
+                if (!running && redeliveries.isEmpty() && journal.closeIfDrained()) {
+                    break;
+                }
+                consumerWaiting = true;
+                // 先标记再检查，写入日志、重新投递和关闭后都会检查该标记并唤醒，无需限时挂起
+                if (!journal.hasUnread() && redeliveries.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                consumerWaiting = false;
+            }
+        } finally {
+            // 先标记退出再处理剩余的重新投递，与redeliver中的检查配合，保证退出后投递的调用不会遗漏
+            terminated = true;
+            drainRedeliveries();
+            journal.close();
+        }
+    }
+
+    /**
+     * 加锁保证{@link #redeliveries}同一时刻只有一个消费者；按是否为空判断，入队未完成链接的调用也会等到
+     */
+    private void drainRedeliveries() {
+        synchronized (drainLock) {
+            while (!redeliveries.isEmpty()) {
+                Runnable redelivery = redeliveries.poll();
+                if (redelivery == null) {
+                    Thread.yield();
+                    continue;
+                }
+                runRedelivery(redelivery);
+            }
+        }
+    }
+
+    private static void runRedelivery(Runnable redelivery) {
+        try {
+            redelivery.run();
+        } catch (Throwable e) {
+            logger.error("journal consumer redeliver error", e);
+        }
+    }
+
+    private void process(byte[] payload, PostCompletion completion) {
+        Object event;
+        String topic;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            int topicLength = buffer.getInt();
+            topic = topicLength < 0 ? null : new String(payload, Integer.BYTES, topicLength, StandardCharsets.UTF_8);
+            int eventOffset = Integer.BYTES + Math.max(topicLength, 0);
+            event = codec.decode(Arrays.copyOfRange(payload, eventOffset, payload.length));
+        } catch (Throwable e) {
+            logger.error("decode journal event error, skipped, size:{}", payload.length, e);
+            if (completion != null) {
+                completion.onComplete(e);
+            }
+            return;
+        }
+        try {
+            invokeAsyncSubscribers(event, bus.getDispatchPlan(event.getClass(), topic).getSubscribers(), completion);
+        } catch (Throwable e) {
+            logger.error("journal consumer process event error, event:{}", event, e);
+        }
+    }
+
+    private void invokeAsyncSubscribers(Object event, Subscriber[] eventSubscribers, PostCompletion completion) {
+        Throwable failure = null;
+        try {
+            for (Subscriber subscriber : eventSubscribers) {
+                if (subscriber.isAsync()) {
+                    subscriber.processEventInCurrentThread(event, completion);
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (completion != null) {
+                completion.onComplete(failure);
+            }
+        }
+    }
+
+}
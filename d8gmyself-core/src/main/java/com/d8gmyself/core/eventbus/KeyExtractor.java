@@ -0,0 +1,23 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 从事件中提取key，用于{@link Subscribe#partitionKey()}等按key处理事件的场景
+ * <p>
+ * 实现类必须有无参构造函数（可以是private），同一实现类的实例由使用它的订阅者共享，需保证线程安全
+ * </p>
+ *
+ * @param <E> 事件类型
+ * @author zhangduo -- 2026/10/16
+ */
+@FunctionalInterface
+public interface KeyExtractor<E> {
+
+    /**
+     * 提取key
+     *
+     * @param event 事件
+     * @return key，需正确实现equals和hashCode
+     */
+    Object extract(E event);
+
+}
@@ -0,0 +1,56 @@
+package com.d8gmyself.core.eventbus;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * {@link KeyExtractor}实例缓存
+ * <p>
+ * 通过无参构造方法创建实例，构造方法可以是private；实例由使用它的订阅者强引用，
+ * 缓存只弱引用实例，没有订阅者使用后实现类及其类加载器可以被回收。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class KeyExtractors {
+
+    @SuppressWarnings("rawtypes")
+    private static final LoadingCache<Class<? extends KeyExtractor>, KeyExtractor<Object>> EXTRACTORS = CacheBuilder.newBuilder().weakKeys()
+            .weakValues()
+            .build(new CacheLoader<Class<? extends KeyExtractor>, KeyExtractor<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public KeyExtractor<Object> load(Class<? extends KeyExtractor> key) throws Exception {
+                    Constructor<? extends KeyExtractor> constructor = key.getDeclaredConstructor();
+                    // 与事件类型一样，允许私有的嵌套类和构造方法
+                    constructor.setAccessible(true);
+                    return constructor.newInstance();
+                }
+            });
+
+    private KeyExtractors() {
+    }
+
+    /**
+     * 获取KeyExtractor实例
+     *
+     * @param type 实现类，为{@link KeyExtractor}本身时表示未配置
+     * @return 实例，未配置时返回null
+     */
+    @SuppressWarnings("rawtypes")
+    static KeyExtractor<Object> of(Class<? extends KeyExtractor> type) {
+        if (isNone(type)) {
+            return null;
+        }
+        return EXTRACTORS.getUnchecked(type);
+    }
+
+    @SuppressWarnings("rawtypes")
+    static boolean isNone(Class<? extends KeyExtractor> type) {
+        return type == KeyExtractor.class;
+    }
+
+}
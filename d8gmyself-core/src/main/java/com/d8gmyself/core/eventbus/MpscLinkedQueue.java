@@ -0,0 +1,85 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * 无锁多生产者单消费者队列（Vyukov intrusive MPSC）
+ * <p>
+ * 生产者入队只有一次{@code getAndSet}，消费者出队没有CAS；
+ * 生产者交换完头节点但尚未链接next时，{@link #poll()}可能短暂返回null，消费者需自行重试
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class MpscLinkedQueue<E> {
+
+    /**
+     * 生产者端，最后入队的节点
+     */
+    private final AtomicReference<Node<E>> head;
+    /**
+     * 消费者端，哨兵节点，只由消费者线程访问
+     */
+    private Node<E> tail;
+
+    MpscLinkedQueue() {
+        Node<E> stub = new Node<>(null);
+        this.head = new AtomicReference<>(stub);
+        this.tail = stub;
+    }
+
+    /**
+     * 入队，可由任意线程调用
+     *
+     * @param e 元素，不能为null
+     */
+    void offer(E e) {
+        Node<E> node = new Node<>(e);
+        Node<E> prev = head.getAndSet(node);
+        prev.lazySetNext(node);
+    }
+
+    /**
+     * 出队，只能由消费者线程调用
+     *
+     * @return 队首元素，队列为空（或生产者正在入队）时返回null
+     */
+    E poll() {
+        Node<E> next = tail.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null;
+        tail = next;
+        return value;
+    }
+
+    /**
+     * 是否为空，只能由消费者线程调用
+     *
+     * @return 生产者正在入队时也返回false
+     */
+    boolean isEmpty() {
+        return head.get() == tail;
+    }
+
+    private static final class Node<E> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        private E value;
+        private volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+
+        void lazySetNext(Node<E> next) {
+            NEXT_UPDATER.lazySet(this, next);
+        }
+    }
+
+}
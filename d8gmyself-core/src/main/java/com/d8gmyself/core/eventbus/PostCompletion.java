@@ -0,0 +1,68 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link EventBus#postAsync(Object)}的完成状态
+ * <p>
+ * 只用一个计数跟踪所有订阅者：每次把事件交给订阅者前{@link #retain()}，订阅者处理完成后{@link #onComplete(Throwable)}，
+ * 发布线程自身持有初始的1，分发结束后释放，计数归零时完成。
+ * 所有订阅者异常汇总为{@link PostFailedException}。
+ * 只在事件总线内部使用，{@link EventBus#postAsync(Object)}返回由它完成的另一个stage，不对调用方暴露。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class PostCompletion extends CompletableFuture<Void> implements DeliveryCallback {
+
+    private static final AtomicIntegerFieldUpdater<PostCompletion> PENDING =
+            AtomicIntegerFieldUpdater.newUpdater(PostCompletion.class, "pending");
+
+    private volatile int pending = 1;
+    /**
+     * 没有异常时为null
+     */
+    private List<Throwable> failures;
+
+    /**
+     * 增加一个未完成的处理
+     */
+    void retain() {
+        PENDING.incrementAndGet(this);
+    }
+
+    @Override
+    public void onComplete(Throwable failure) {
+        if (failure != null) {
+            addFailure(failure);
+        }
+        if (PENDING.decrementAndGet(this) == 0) {
+            List<Throwable> allFailures;
+            synchronized (this) {
+                allFailures = this.failures;
+            }
+            if (allFailures == null) {
+                complete(null);
+            } else {
+                completeExceptionally(new PostFailedException(allFailures));
+            }
+        }
+    }
+
+    private synchronized void addFailure(Throwable failure) {
+        if (failures == null) {
+            failures = new ArrayList<>(2);
+        }
+        for (Throwable existing : failures) {
+            // 同一异常可能既被投递路径记录，又被发布线程捕获
+            if (existing == failure) {
+                return;
+            }
+        }
+        failures.add(failure);
+    }
+
+}
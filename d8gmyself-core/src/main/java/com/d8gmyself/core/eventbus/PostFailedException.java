@@ -0,0 +1,35 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link EventBus#postAsync(Object)}中有订阅者处理失败
+ * <p>
+ * cause为第一个异常，其余异常作为suppressed附加，也可以通过{@link #getFailures()}获取全部异常
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class PostFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Throwable> failures;
+
+    PostFailedException(List<Throwable> failures) {
+        super(failures.size() + "个订阅者处理事件失败", failures.get(0));
+        this.failures = Collections.unmodifiableList(failures);
+        for (int i = 1; i < failures.size(); i++) {
+            addSuppressed(failures.get(i));
+        }
+    }
+
+    /**
+     * @return 全部订阅者异常
+     */
+    public List<Throwable> getFailures() {
+        return failures;
+    }
+
+}
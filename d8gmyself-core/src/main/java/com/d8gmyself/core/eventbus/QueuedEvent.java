@@ -0,0 +1,71 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 异步投递的事件附带的信息：开启统计时的入队时间，用于统计排队等待时间；
+ * {@link EventBus#postAsync(Object)}的完成回调；重试时的执行次数；以及是否经过限流放行
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class QueuedEvent {
+
+    private final Object event;
+    private final long enqueueNanos;
+    private final DeliveryCallback callback;
+    /**
+     * 第几次执行，从1开始
+     */
+    private final int attempt;
+    /**
+     * 是否由{@link SubscriberLimiter}放行，执行完成后需要归还
+     */
+    private final boolean limited;
+
+    QueuedEvent(Object event, long enqueueNanos, DeliveryCallback callback) {
+        this(event, enqueueNanos, callback, 1, false);
+    }
+
+    QueuedEvent(Object event, long enqueueNanos, DeliveryCallback callback, int attempt, boolean limited) {
+        this.event = event;
+        this.enqueueNanos = enqueueNanos;
+        this.callback = callback;
+        this.attempt = attempt;
+        this.limited = limited;
+    }
+
+    Object getEvent() {
+        return event;
+    }
+
+    long getEnqueueNanos() {
+        return enqueueNanos;
+    }
+
+    /**
+     * @return 完成回调，不需要时为null
+     */
+    DeliveryCallback getCallback() {
+        return callback;
+    }
+
+    int getAttempt() {
+        return attempt;
+    }
+
+    boolean isLimited() {
+        return limited;
+    }
+
+    static Object unwrap(Object payload) {
+        return payload instanceof QueuedEvent ? ((QueuedEvent) payload).event : payload;
+    }
+
+    /**
+     * 事件未被处理就被丢弃（如被合并）时调用，视为处理完成
+     */
+    static void discard(Object payload) {
+        if (payload instanceof QueuedEvent && ((QueuedEvent) payload).callback != null) {
+            ((QueuedEvent) payload).callback.onComplete(null);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 异步订阅者的重试策略，由{@link Subscribe#maxAttempts()}等属性配置
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final double backoffMultiplier;
+    private final long maxBackoffMillis;
+
+    private RetryPolicy(Subscribe subscribe) {
+        this.maxAttempts = subscribe.maxAttempts();
+        this.backoffMillis = subscribe.retryBackoffMillis();
+        this.backoffMultiplier = subscribe.retryBackoffMultiplier();
+        this.maxBackoffMillis = subscribe.maxRetryBackoffMillis();
+    }
+
+    /**
+     * @return 不重试时为null
+     */
+    static RetryPolicy of(Subscribe subscribe) {
+        return subscribe.async() && subscribe.maxAttempts() > 1 ? new RetryPolicy(subscribe) : null;
+    }
+
+    /**
+     * 校验重试配置
+     *
+     * @throws IllegalArgumentException 配置无效
+     */
+    static void check(Subscribe subscribe, Object method) {
+        if (subscribe.maxAttempts() < 1) {
+            throw new IllegalArgumentException("maxAttempts必须大于0: " + method);
+        }
+        if (subscribe.maxAttempts() > 1) {
+            if (!subscribe.async()) {
+                throw new IllegalArgumentException("maxAttempts只能用于异步Subscribe方法: " + method);
+            }
+            if (subscribe.retryBackoffMillis() < 0 || subscribe.retryBackoffMultiplier() < 1
+                    || subscribe.maxRetryBackoffMillis() < subscribe.retryBackoffMillis()) {
+                throw new IllegalArgumentException("重试等待时间配置无效: " + method);
+            }
+        }
+    }
+
+    /**
+     * @param attempt 刚失败的是第几次执行
+     * @return 是否还可以重试
+     */
+    boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * @param attempt 刚失败的是第几次执行
+     * @return 下一次执行前等待的毫秒数
+     */
+    long backoffMillis(int attempt) {
+        double delay = backoffMillis * Math.pow(backoffMultiplier, attempt - 1);
+        return (long) Math.min(delay, maxBackoffMillis);
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 基于预分配环形队列的事件分发（参考Disruptor）
+ * <p>
+ * 同步订阅者仍在发布线程中按顺序执行；存在异步订阅者时，事件和订阅者数组被写入环形队列，
+ * 由单独的消费者线程按序号批量取出，并按顺序执行异步订阅者。
+ * 队列满时发布线程自旋等待，不会丢弃事件，也不会无限占用堆内存。
+ * </p>
+ * <p>
+ * 关闭时在已申请序号上打上关闭标记，之后不能再申请新序号，关闭前申请到的序号都会由消费者处理完才退出；
+ * 关闭后，或在消费者线程中发布而队列已满时，事件改由发布线程自己执行。
+ * </p>
+ * <p>
+ * 异步订阅者的重试和死信重放同样写入环形队列，由消费者线程执行。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+class RingBufferDispatcher implements Dispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferDispatcher.class);
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /**
+     * {@link #claimed}中的关闭标记
+     */
+    private static final long CLOSED = 1L << 62;
+
+    private final int bufferSize;
+    private final int mask;
+    private final int indexShift;
+    private final WaitStrategy waitStrategy;
+    private final Object[] events;
+    private final Subscriber[][] subscribers;
+    private final PostCompletion[] completions;
+    /**
+     * 每个槽位已发布的圈数，用于多生产者场景下判断某个序号是否已发布
+     */
+    private final AtomicIntegerArray availableBuffer;
+    /**
+     * 生产者已申请的序号数，即下一个可申请的序号；关闭后带有{@link #CLOSED}标记，不能再申请
+     */
+    private final AtomicLong claimed = new AtomicLong();
+    /**
+     * 消费者已处理完的最大序号
+     */
+    private final AtomicLong consumed = new AtomicLong(-1);
+    private volatile boolean running;
+    private volatile boolean consumerWaiting;
+    private volatile Thread consumer;
+
+    /**
+     * @param bufferSize   队列大小，必须是2的幂
+     * @param waitStrategy 消费者等待策略
+     */
+    RingBufferDispatcher(int bufferSize, WaitStrategy waitStrategy) {
+        checkArgument(bufferSize > 0 && Integer.bitCount(bufferSize) == 1, "bufferSize必须是2的幂");
+        this.bufferSize = bufferSize;
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.waitStrategy = checkNotNull(waitStrategy);
+        this.events = new Object[bufferSize];
+        this.subscribers = new Subscriber[bufferSize][];
+        this.completions = new PostCompletion[bufferSize];
+        this.availableBuffer = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            availableBuffer.set(i, -1);
+        }
+    }
+
+    @Override
+    public void start(EventBus bus) {
+        Thread thread = new Thread(this::consume, "EventBus-" + bus.identifier() + "-ring");
+        thread.setDaemon(true);
+        this.consumer = thread;
+        this.running = true;
+        thread.start();
+    }
+
+    @Override
+    public void dispatch(Object event, DispatchPlan plan, PostCompletion completion) {
+        Subscriber[] subscribers = plan.getSubscribers();
+        boolean hasAsync = false;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isAsync()) {
+                hasAsync = true;
+            } else {
+                subscriber.processEventInCurrentThread(event, completion);
+            }
+        }
+        if (!hasAsync) {
+            return;
+        }
+        if (completion != null) {
+            // 在消费者线程执行完异步订阅者后释放
+            completion.retain();
+        }
+        if (!publish(event, subscribers, completion)) {
+            // 已关闭，或在消费者线程中发布时队列已满，由发布线程自己执行
+            invokeAsyncSubscribers(event, subscribers, completion);
+        }
+    }
+
+    @Override
+    public void redeliver(Subscriber subscriber, Object payload) {
+        Redelivery redelivery = new Redelivery(subscriber, payload);
+        if (!publish(redelivery, null, null)) {
+            redelivery.run();
+        }
+    }
+
+    @Override
+    public boolean runsAsyncSubscribers() {
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        long current;
+        do {
+            current = claimed.get();
+        } while ((current & CLOSED) == 0 && !claimed.compareAndSet(current, current | CLOSED));
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * @return 已关闭，或在消费者线程中发布时队列已满（等待会死锁）时返回false，事件未写入队列
+     */
+    private boolean publish(Object event, Subscriber[] eventSubscribers, PostCompletion completion) {
+        long sequence;
+        while (true) {
+            sequence = claimed.get();
+            if ((sequence & CLOSED) != 0) {
+                return false;
+            }
+            if (sequence - bufferSize > consumed.get()) {
+                // 队列已满，等待消费者
+                if (Thread.currentThread() == consumer) {
+                    return false;
+                }
+                LockSupport.parkNanos(1L);
+                continue;
+            }
+            // 只在有空位时申请序号，放弃发布时不会留下永远不会写入的序号
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        int index = (int) sequence & mask;
+        events[index] = event;
+        subscribers[index] = eventSubscribers;
+        completions[index] = completion;
+        int flag = (int) (sequence >>> indexShift);
+        if (waitStrategy == WaitStrategy.PARKING) {
+            // 需要和consumerWaiting的读取保持顺序，避免丢失唤醒
+            availableBuffer.set(index, flag);
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+        } else {
+            availableBuffer.lazySet(index, flag);
+        }
+        return true;
+    }
+
+    private void consume() {
+        long nextSequence = consumed.get() + 1;
+        int idleCounter = 0;
+        while (true) {
+            long current = claimed.get();
+            long upperBound = (current & ~CLOSED) - 1;
+            long available = highestPublished(nextSequence, upperBound);
+            if (available < nextSequence) {
+                if ((current & CLOSED) != 0 && upperBound < nextSequence) {
+                    // 关闭后序号不再增长，已申请的序号都已处理完
+                    break;
+                }
+                idle(idleCounter++, nextSequence);
+                continue;
+            }
+            idleCounter = 0;
+            for (long sequence = nextSequence; sequence <= available; sequence++) {
+                int index = (int) sequence & mask;
+                Object event = events[index];
+                Subscriber[] eventSubscribers = subscribers[index];
+                PostCompletion completion = completions[index];
+                events[index] = null;
+                subscribers[index] = null;
+                completions[index] = null;
+                try {
+                    if (eventSubscribers == null) {
+                        ((Redelivery) event).run();
+                    } else {
+                        invokeAsyncSubscribers(event, eventSubscribers, completion);
+                    }
+                } catch (Throwable e) {
+                    logger.error("ring buffer consumer process event error, event:{}", event, e);
+                }
+            }
+            consumed.lazySet(available);
+            nextSequence = available + 1;
+        }
+    }
+
+    private void invokeAsyncSubscribers(Object event, Subscriber[] eventSubscribers, PostCompletion completion) {
+        Throwable failure = null;
+        try {
+            for (Subscriber subscriber : eventSubscribers) {
+                if (subscriber.isAsync()) {
+                    subscriber.processEventInCurrentThread(event, completion);
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (completion != null) {
+                completion.onComplete(failure);
+            }
+        }
+    }
+
+    private void idle(int counter, long nextSequence) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                break;
+            case YIELDING:
+                if (counter >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+                break;
+            case PARKING:
+                if (counter >= SPIN_TRIES) {
+                    consumerWaiting = true;
+                    if (!isAvailable(nextSequence) && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    consumerWaiting = false;
+                }
+                break;
+            default:
+                throw new IllegalStateException("unknown wait strategy: " + waitStrategy);
+        }
+    }
+
+    /**
+     * 从{@code lowerBound}开始查找连续已发布的最大序号
+     */
+    private long highestPublished(long lowerBound, long upperBound) {
+        for (long sequence = lowerBound; sequence <= upperBound; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return upperBound;
+    }
+
+    private boolean isAvailable(long sequence) {
+        return availableBuffer.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * 重新投递的一次订阅者调用，写入环形队列时订阅者数组为null
+     */
+    private static final class Redelivery {
+        private final Subscriber subscriber;
+        private final Object payload;
+
+        private Redelivery(Subscriber subscriber, Object payload) {
+            this.subscriber = subscriber;
+            this.payload = payload;
+        }
+
+        private void run() {
+            subscriber.invokeSubscriberMethod(payload);
+        }
+    }
+
+}
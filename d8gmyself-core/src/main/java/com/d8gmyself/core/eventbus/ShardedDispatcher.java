@@ -0,0 +1,416 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 多通道分片分发
+ * <p>
+ * 同步订阅者仍在发布线程中按顺序执行；异步订阅者由若干个单线程通道执行。各通道的队列相互独立，
+ * 发布线程之间只在选中同一通道时才有竞争，不再集中在一个线程池队列上。
+ * </p>
+ * <p>
+ * {@code allowConcurrency = false}的异步订阅者固定由所属的一个通道执行，通道之间不会争用同一订阅者；
+ * 其余异步订阅者配置了路由key时按key的hash选择通道，同一key的事件始终由同一通道按发布顺序处理，不会被其他通道窃取；
+ * 未配置时每个发布线程轮流选择通道，这类事件先进入通道的收件队列，再由通道线程移入可窃取队列，
+ * 空闲的通道只从可窃取队列中窃取，避免个别通道堆积。同一事件的异步订阅者可能在不同通道中执行，相互之间不保证{@link Subscribe#order()}顺序。
+ * </p>
+ * <p>
+ * {@link WaitStrategy#PARKING}下空闲的通道不限时挂起，不会定时醒来轮询；
+ * 某个通道的可窃取事件达到{@link #STEAL_BACKLOG}个时，才唤醒一个挂起的通道来窃取。
+ * </p>
+ * <p>
+ * 异步订阅者的重试和死信重放按同样的规则交给通道执行：不允许并发的订阅者回到所属通道，其余轮流选择通道。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+class ShardedDispatcher implements Dispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedDispatcher.class);
+
+    private static final int SPIN_TRIES = 100;
+    /**
+     * 每个通道可被窃取的事件数上限
+     */
+    private static final int STEALABLE_CAPACITY = 256;
+    /**
+     * 通道的可窃取事件达到该数量时唤醒一个挂起的通道
+     */
+    private static final int STEAL_BACKLOG = 16;
+
+    private final Lane[] lanes;
+    private final KeyExtractor<Object> routingKeyExtractor;
+    private final WaitStrategy waitStrategy;
+    /**
+     * 发布线程各自的轮询位置，不在发布线程之间共享
+     */
+    private final ThreadLocal<LaneCursor> laneCursor;
+    /**
+     * 挂起的通道数，没有挂起的通道时不必查找窃取者
+     */
+    private final AtomicInteger parkedLanes = new AtomicInteger();
+    private volatile boolean running;
+
+    /**
+     * @param laneCount           通道数
+     * @param routingKeyExtractor 路由key，为null时轮询分配且允许窃取
+     * @param waitStrategy        通道线程等待策略
+     */
+    ShardedDispatcher(int laneCount, KeyExtractor<Object> routingKeyExtractor, WaitStrategy waitStrategy) {
+        checkArgument(laneCount > 0, "lanes必须大于0");
+        this.routingKeyExtractor = routingKeyExtractor;
+        this.waitStrategy = checkNotNull(waitStrategy);
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+        }
+        // 不同线程从不同通道开始轮询
+        this.laneCursor = ThreadLocal.withInitial(() -> new LaneCursor((int) (Thread.currentThread().getId() % laneCount)));
+    }
+
+    @Override
+    public void start(EventBus bus) {
+        this.running = true;
+        for (Lane lane : lanes) {
+            Thread thread = new Thread(lane, "EventBus-" + bus.identifier() + "-lane-" + lane.index);
+            thread.setDaemon(true);
+            lane.thread = thread;
+            thread.start();
+        }
+    }
+
+    @Override
+    public void dispatch(Object event, DispatchPlan plan, PostCompletion completion) {
+        Subscriber[] subscribers = plan.getSubscribers();
+        boolean hasConcurrent = false;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.isAsync()) {
+                subscriber.processEventInCurrentThread(event, completion);
+            } else if (subscriber.allowsConcurrency()) {
+                hasConcurrent = true;
+            } else {
+                offer(ownerOf(subscriber), new Task(event, subscriber, null, completion, false), true);
+            }
+        }
+        if (!hasConcurrent) {
+            return;
+        }
+        Task task = new Task(event, null, subscribers, completion, false);
+        if (routingKeyExtractor != null) {
+            int hash = Objects.hashCode(routingKeyExtractor.extract(event));
+            // 打散高位，避免key的hashCode只有高位不同时集中到同一通道
+            hash ^= (hash >>> 16);
+            offer(lanes[Math.floorMod(hash, lanes.length)], task, true);
+        } else {
+            offer(lanes[laneCursor.get().next(lanes.length)], task, false);
+        }
+    }
+
+    private void offer(Lane lane, Task task, boolean pinned) {
+        if (task.completion != null) {
+            // 在通道线程执行完异步订阅者后释放
+            task.completion.retain();
+        }
+        if (pinned) {
+            lane.offerPinned(task);
+        } else {
+            lane.offerStealable(task);
+        }
+    }
+
+    /**
+     * 订阅者序号按注册顺序递增，订阅者依次分配到各通道
+     */
+    private Lane ownerOf(Subscriber subscriber) {
+        return lanes[(int) (subscriber.getSequence() % lanes.length)];
+    }
+
+    @Override
+    public void redeliver(Subscriber subscriber, Object payload) {
+        Task task = new Task(payload, subscriber, null, null, true);
+        if (subscriber.allowsConcurrency()) {
+            offer(lanes[laneCursor.get().next(lanes.length)], task, false);
+        } else {
+            offer(ownerOf(subscriber), task, true);
+        }
+    }
+
+    @Override
+    public boolean runsAsyncSubscribers() {
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        for (Lane lane : lanes) {
+            Thread thread = lane.thread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * 从其他通道窃取一个可窃取的事件
+     */
+    private Task steal(int thief) {
+        for (int i = 1; i < lanes.length; i++) {
+            Task task = lanes[(thief + i) % lanes.length].stealable.poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 唤醒一个挂起的通道来窃取{@code owner}堆积的事件
+     */
+    private void wakeThief(int owner) {
+        if (parkedLanes.get() == 0) {
+            return;
+        }
+        for (int i = 1; i < lanes.length; i++) {
+            Lane lane = lanes[(owner + i) % lanes.length];
+            if (lane.waiting) {
+                LockSupport.unpark(lane.thread);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 是否有通道存在可窃取的事件
+     */
+    private boolean hasStealable() {
+        for (Lane lane : lanes) {
+            if (!lane.stealable.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 发布线程的轮询位置
+     */
+    private static final class LaneCursor {
+        private int next;
+
+        private LaneCursor(int next) {
+            this.next = next;
+        }
+
+        private int next(int laneCount) {
+            int lane = next;
+            next = lane + 1 == laneCount ? 0 : lane + 1;
+            return lane;
+        }
+    }
+
+    /**
+     * 一个事件及其订阅者
+     */
+    private static final class Task {
+        private final Object event;
+        /**
+         * 只执行这一个订阅者，为null时执行{@link #subscribers}中允许并发的异步订阅者
+         */
+        private final Subscriber owned;
+        private final Subscriber[] subscribers;
+        private final PostCompletion completion;
+        /**
+         * 是否为重新投递，是则{@link #event}可能是{@link QueuedEvent}，直接调用订阅方法
+         */
+        private final boolean redelivery;
+
+        private Task(Object event, Subscriber owned, Subscriber[] subscribers, PostCompletion completion, boolean redelivery) {
+            this.event = event;
+            this.owned = owned;
+            this.subscribers = subscribers;
+            this.completion = completion;
+            this.redelivery = redelivery;
+        }
+
+        private void run() {
+            Throwable failure = null;
+            try {
+                if (redelivery) {
+                    owned.invokeSubscriberMethod(event);
+                } else if (owned != null) {
+                    // 只在所属通道中执行，订阅者的锁不会被其他通道争用
+                    owned.processEventInCurrentThread(event, completion);
+                } else {
+                    for (Subscriber subscriber : subscribers) {
+                        if (subscriber.isAsync() && subscriber.allowsConcurrency()) {
+                            subscriber.processEventInCurrentThread(event, completion);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                failure = e;
+                logger.error("sharded dispatcher process event error, event:{}", event, e);
+            } finally {
+                if (completion != null) {
+                    completion.onComplete(failure);
+                }
+            }
+        }
+    }
+
+    /**
+     * 单线程分发通道
+     */
+    private final class Lane implements Runnable {
+
+        private final int index;
+        /**
+         * 按key路由的事件和所属订阅者的事件，只由本通道消费
+         */
+        private final MpscLinkedQueue<Task> pinned = new MpscLinkedQueue<>();
+        /**
+         * 轮询分配的事件，只由本通道取出并移入{@link #stealable}
+         */
+        private final MpscLinkedQueue<Task> inbox = new MpscLinkedQueue<>();
+        /**
+         * 本通道和空闲的通道都可以从中取出，只由本通道写入
+         */
+        private final SpmcArrayQueue<Task> stealable = new SpmcArrayQueue<>(STEALABLE_CAPACITY);
+        private volatile Thread thread;
+        private volatile boolean waiting;
+        /**
+         * 通道线程已退出，之后入队的事件由发布线程处理
+         */
+        private volatile boolean terminated;
+
+        private Lane(int index) {
+            this.index = index;
+        }
+
+        private void offerPinned(Task task) {
+            pinned.offer(task);
+            afterOffer();
+        }
+
+        private void offerStealable(Task task) {
+            inbox.offer(task);
+            afterOffer();
+            if (stealable.size() >= STEAL_BACKLOG) {
+                wakeThief(index);
+            }
+        }
+
+        private void afterOffer() {
+            if (terminated) {
+                // 发布时通道线程恰好退出
+                drainAfterTermination();
+            } else if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idleCounter = 0;
+            while (true) {
+                Task task = pinned.poll();
+                if (task == null) {
+                    task = pollStealable();
+                }
+                if (task == null && idleCounter >= SPIN_TRIES) {
+                    task = steal(index);
+                }
+                if (task != null) {
+                    idleCounter = 0;
+                    task.run();
+                    continue;
+                }
+                if (!running) {
+                    break;
+                }
+                idle(idleCounter++);
+            }
+            // 先标记退出再处理剩余事件，与afterOffer中的检查配合，保证退出后入队的事件不会遗漏
+            terminated = true;
+            drainAfterTermination();
+        }
+
+        /**
+         * 先把收件队列中的事件移入可窃取队列，再取出一个
+         */
+        private Task pollStealable() {
+            int room = stealable.capacity() - stealable.size();
+            Task task;
+            while (room > 0 && (task = inbox.poll()) != null) {
+                stealable.offer(task);
+                room--;
+            }
+            task = stealable.poll();
+            if (task != null && stealable.size() >= STEAL_BACKLOG) {
+                // 本通道处理当前事件期间，由挂起的通道窃取其余事件
+                wakeThief(index);
+            }
+            return task;
+        }
+
+        /**
+         * 加锁保证{@link #pinned}和{@link #inbox}同一时刻只有一个消费者；
+         * 按是否为空判断，入队未完成链接的事件也会等到
+         */
+        private synchronized void drainAfterTermination() {
+            drain(pinned);
+            drain(inbox);
+            Task task;
+            while ((task = stealable.poll()) != null) {
+                task.run();
+            }
+        }
+
+        private void drain(MpscLinkedQueue<Task> queue) {
+            while (!queue.isEmpty()) {
+                Task task = queue.poll();
+                if (task == null) {
+                    Thread.yield();
+                    continue;
+                }
+                task.run();
+            }
+        }
+
+        private void idle(int counter) {
+            switch (waitStrategy) {
+                case BUSY_SPIN:
+                    break;
+                case YIELDING:
+                    if (counter >= SPIN_TRIES) {
+                        Thread.yield();
+                    }
+                    break;
+                case PARKING:
+                    if (counter >= SPIN_TRIES) {
+                        waiting = true;
+                        parkedLanes.incrementAndGet();
+                        // 先标记再检查，入队和其他通道堆积时都会检查该标记并唤醒，无需限时挂起
+                        if (running && pinned.isEmpty() && inbox.isEmpty() && !hasStealable()) {
+                            LockSupport.park(this);
+                        }
+                        parkedLanes.decrementAndGet();
+                        waiting = false;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("unknown wait strategy: " + waitStrategy);
+            }
+        }
+    }
+
+}
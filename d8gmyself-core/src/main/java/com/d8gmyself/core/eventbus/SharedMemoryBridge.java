@@ -0,0 +1,295 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 通过共享内存文件在同一主机的进程之间桥接事件总线
+ * <p>
+ * 发布端在本地总线上同步订阅指定类型的事件，编码后按发布顺序写入内存映射的环形文件（参见{@link SharedMemoryRing}）；
+ * 接收端由单独的线程读取、解码，并重新发布到所在进程的总线。一个文件只有一个发布端，可以有多个接收端。
+ * 不经过网络和系统调用，适合本机多个JVM之间同步事件。
+ * </p>
+ * <p>
+ * 接收端不会阻塞发布端，落后超过一圈时跳过中间的事件，参见{@link #getOverruns()}；
+ * 接收端重新发布的事件不会被同一进程中的发布端再次转发，避免双向桥接时形成回路。
+ * 只桥接事件本身，不包括发布时的主题。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class SharedMemoryBridge implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryBridge.class);
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long OPEN_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Method FORWARD_METHOD;
+    /**
+     * 当前线程是否正在重新发布接收到的事件
+     */
+    private static final ThreadLocal<Boolean> RECEIVING = new ThreadLocal<>();
+
+    static {
+        try {
+            FORWARD_METHOD = Forwarder.class.getMethod("onEvent", Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final EventBus bus;
+    private final Path file;
+    private final EventCodec codec;
+    private final Subscription subscription;
+    private final WaitStrategy waitStrategy;
+    private final Thread receiver;
+    private volatile SharedMemoryRing ring;
+    private volatile boolean running = true;
+
+    private SharedMemoryBridge(EventBus bus, Path file, EventCodec codec, SharedMemoryRing ring, Class<?>[] eventTypes) {
+        this.bus = bus;
+        this.file = file;
+        this.codec = codec;
+        this.ring = ring;
+        this.waitStrategy = null;
+        this.receiver = null;
+        // 按转发的类型分别订阅，其他类型的事件不经过转发，没有订阅者的事件仍按DeadEvent处理
+        this.subscription = bus.register(new Forwarder(), FORWARD_METHOD, forwardedTypes(eventTypes));
+    }
+
+    private SharedMemoryBridge(EventBus bus, Path file, EventCodec codec, WaitStrategy waitStrategy) {
+        this.bus = bus;
+        this.file = file;
+        this.codec = codec;
+        this.waitStrategy = waitStrategy;
+        this.subscription = null;
+        Thread thread = new Thread(this::receive, "EventBus-" + bus.identifier() + "-bridge-" + file.getFileName());
+        thread.setDaemon(true);
+        this.receiver = thread;
+        thread.start();
+    }
+
+    /**
+     * 创建发布端，使用按{@code eventTypes}顺序登记的{@link BinaryEventCodec}，接收端需要以相同顺序登记相同类型
+     *
+     * @param bus        本地事件总线
+     * @param file       共享文件，不存在时创建
+     * @param capacity   数据区容量（字节），必须是2的幂且不小于4096
+     * @param eventTypes 要转发的事件类型，其子类事件也会被转发
+     * @return 发布端
+     * @throws UncheckedIOException  打开文件失败
+     * @throws IllegalStateException 该文件已有其他发布端
+     */
+    public static SharedMemoryBridge publisher(EventBus bus, Path file, int capacity, Class<?>... eventTypes) {
+        return publisher(bus, file, capacity, new BinaryEventCodec(eventTypes), eventTypes);
+    }
+
+    /**
+     * 创建发布端
+     *
+     * @param bus        本地事件总线
+     * @param file       共享文件，不存在时创建
+     * @param capacity   数据区容量（字节），必须是2的幂且不小于4096
+     * @param codec      事件编解码，需要与接收端一致
+     * @param eventTypes 要转发的事件类型，其子类事件也会被转发
+     * @return 发布端
+     * @throws UncheckedIOException  打开文件失败
+     * @throws IllegalStateException 该文件已有其他发布端
+     */
+    public static SharedMemoryBridge publisher(EventBus bus, Path file, int capacity, EventCodec codec, Class<?>... eventTypes) {
+        checkNotNull(bus);
+        checkNotNull(codec);
+        checkArgument(eventTypes.length > 0, "eventTypes不能为空");
+        SharedMemoryRing ring;
+        try {
+            ring = SharedMemoryRing.openProducer(file, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开共享内存文件失败: " + file, e);
+        }
+        return new SharedMemoryBridge(bus, file, codec, ring, eventTypes.clone());
+    }
+
+    /**
+     * 创建接收端，使用按{@code eventTypes}顺序登记的{@link BinaryEventCodec}
+     * <p>
+     * 文件不存在或尚未初始化时在后台等待发布端创建，从接收端打开文件时的位置开始接收
+     * </p>
+     *
+     * @param bus          本地事件总线
+     * @param file         共享文件
+     * @param waitStrategy 没有新事件时的等待策略，{@link WaitStrategy#PARKING}为短暂挂起后重新检查
+     * @param eventTypes   与发布端相同顺序的事件类型
+     * @return 接收端
+     */
+    public static SharedMemoryBridge subscriber(EventBus bus, Path file, WaitStrategy waitStrategy, Class<?>... eventTypes) {
+        return subscriber(bus, file, waitStrategy, new BinaryEventCodec(eventTypes));
+    }
+
+    /**
+     * 创建接收端，参见{@link #subscriber(EventBus, Path, WaitStrategy, Class[])}
+     *
+     * @param bus          本地事件总线
+     * @param file         共享文件
+     * @param waitStrategy 没有新事件时的等待策略
+     * @param codec        事件编解码，需要与发布端一致
+     * @return 接收端
+     */
+    public static SharedMemoryBridge subscriber(EventBus bus, Path file, WaitStrategy waitStrategy, EventCodec codec) {
+        return new SharedMemoryBridge(checkNotNull(bus), checkNotNull(file), checkNotNull(codec), checkNotNull(waitStrategy));
+    }
+
+    /**
+     * 接收端因落后超过一圈而跳过事件的次数，发布端始终为0
+     */
+    public long getOverruns() {
+        SharedMemoryRing current = ring;
+        return receiver == null || current == null ? 0 : current.getOverruns();
+    }
+
+    /**
+     * 关闭桥接：发布端取消订阅并关闭文件，接收端停止接收线程
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (receiver == null) {
+            subscription.unregister();
+            ring.close();
+        } else {
+            LockSupport.unpark(receiver);
+        }
+    }
+
+    /**
+     * 去掉重复的类型和其他类型的子类型，避免同一事件被转发多次
+     */
+    private static Class<?>[] forwardedTypes(Class<?>[] eventTypes) {
+        List<Class<?>> result = new ArrayList<>();
+        for (int i = 0; i < eventTypes.length; i++) {
+            Class<?> eventType = checkNotNull(eventTypes[i]);
+            boolean covered = false;
+            for (int j = 0; j < eventTypes.length && !covered; j++) {
+                // 相同的类型只保留第一个
+                covered = j != i && eventTypes[j].isAssignableFrom(eventType) && (eventTypes[j] != eventType || j < i);
+            }
+            if (!covered) {
+                result.add(eventType);
+            }
+        }
+        return result.toArray(new Class<?>[0]);
+    }
+
+    private void forward(Object event) {
+        if (!running || RECEIVING.get() != null) {
+            return;
+        }
+        byte[] payload;
+        try {
+            payload = codec.encode(event);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("事件无法编码: " + event.getClass().getName(), e);
+        }
+        ring.write(payload);
+    }
+
+    private void receive() {
+        SharedMemoryRing current = null;
+        try {
+            current = awaitRing();
+            int counter = 0;
+            while (running) {
+                byte[] payload = current.poll();
+                if (payload != null) {
+                    counter = 0;
+                    repost(payload);
+                    continue;
+                }
+                if (++counter < SPIN_TRIES) {
+                    continue;
+                }
+                switch (waitStrategy) {
+                    case BUSY_SPIN:
+                        break;
+                    case YIELDING:
+                        Thread.yield();
+                        break;
+                    case PARKING:
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                        break;
+                    default:
+                        throw new IllegalStateException("unknown wait strategy: " + waitStrategy);
+                }
+            }
+        } finally {
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+
+    private SharedMemoryRing awaitRing() {
+        boolean logged = false;
+        while (running) {
+            try {
+                SharedMemoryRing opened = SharedMemoryRing.openConsumer(file);
+                this.ring = opened;
+                return opened;
+            } catch (IOException e) {
+                if (!logged) {
+                    logger.info("shared memory file not ready, waiting for publisher, file:{}, reason:{}", file, e.toString());
+                    logged = true;
+                }
+                LockSupport.parkNanos(this, OPEN_RETRY_NANOS);
+            }
+        }
+        return null;
+    }
+
+    private void repost(byte[] payload) {
+        Object event;
+        try {
+            event = codec.decode(payload);
+        } catch (Throwable e) {
+            logger.error("decode bridged event error, skipped, file:{}, size:{}", file, payload.length, e);
+            return;
+        }
+        RECEIVING.set(Boolean.TRUE);
+        try {
+            bus.post(event);
+        } catch (Throwable e) {
+            logger.error("repost bridged event error, event:{}", event, e);
+        } finally {
+            RECEIVING.remove();
+        }
+    }
+
+    /**
+     * 发布端在本地总线上的订阅者，按转发的类型分别注册，与事件发布在同一线程中按顺序写入
+     */
+    final class Forwarder {
+
+        @Subscribe
+        public void onEvent(Object event) {
+            forward(event);
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 基于内存映射文件的单生产者、多消费者环形缓冲区，用于同一主机上的进程间传递事件
+ * <p>
+ * 文件由128字节的头部和数据区组成，头部保存魔数、版本、数据区容量和已发布的写入位置（单独占一个缓存行）。
+ * 每条记录为{@code [int 长度][int CRC32][long 写入位置][数据]}，按8字节对齐，不会跨越数据区末尾，
+ * 剩余空间不足时写入填充标记并从数据区开头继续。
+ * 生产者先写数据、再写记录头，最后发布写入位置；写入位置只增不减，生产者重启后从文件中的位置继续。
+ * </p>
+ * <p>
+ * 消费者各自维护读取位置，互不影响，也不会阻塞生产者：落后超过一圈的消费者直接跳到最新位置，
+ * 并记录一次{@link #getOverruns() 溢出}。读取时校验记录中的写入位置和CRC，据此识别尚未写完或已被覆盖的记录。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class SharedMemoryRing implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryRing.class);
+
+    static final int MIN_CAPACITY = 4096;
+
+    private static final int MAGIC = 0xD8E5B0F1;
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int WRITE_POSITION_OFFSET = 64;
+    private static final int DATA_OFFSET = 128;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final int ALIGNMENT = 8;
+    private static final int PADDING = -1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FileLock producerLock;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    /**
+     * 生产者的写入位置，持有锁时访问；或消费者的读取位置，只在消费线程中访问
+     */
+    private long position;
+    /**
+     * 只在消费线程中修改
+     */
+    private volatile long overruns;
+
+    private SharedMemoryRing(Path file, FileChannel channel, FileLock producerLock, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.channel = channel;
+        this.producerLock = producerLock;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.position = buffer.getLong(WRITE_POSITION_OFFSET);
+    }
+
+    /**
+     * 以生产者身份打开，文件不存在时创建；同一文件同时只能有一个生产者
+     *
+     * @param file     文件
+     * @param capacity 数据区容量，必须是2的幂且不小于{@value #MIN_CAPACITY}；文件已存在时必须与文件中的一致
+     * @throws IOException           打开文件失败
+     * @throws IllegalStateException 已有其他生产者
+     */
+    static SharedMemoryRing openProducer(Path file, int capacity) throws IOException {
+        checkArgument(capacity >= MIN_CAPACITY && Integer.bitCount(capacity) == 1, "capacity必须是2的幂且不小于%s", MIN_CAPACITY);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                // 消费者不加锁，只用于生产者之间互斥
+                lock = channel.tryLock(0, DATA_OFFSET, false);
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IllegalStateException("已有其他生产者在写入: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + (long) capacity);
+            if (buffer.getInt(MAGIC_OFFSET) == MAGIC) {
+                checkArgument(buffer.getInt(VERSION_OFFSET) == VERSION, "文件版本不支持: %s", file);
+                checkArgument(buffer.getInt(CAPACITY_OFFSET) == capacity, "capacity与已有文件不一致: %s", file);
+            } else {
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+                buffer.putLong(WRITE_POSITION_OFFSET, 0);
+                // 魔数最后写入，消费者看到魔数即认为头部完整
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+            }
+            return new SharedMemoryRing(file, channel, lock, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 以消费者身份打开，从当前写入位置开始读取
+     *
+     * @param file 生产者创建的文件
+     * @throws IOException 文件不存在或尚未初始化
+     */
+    static SharedMemoryRing openConsumer(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < DATA_OFFSET) {
+                throw new IOException("文件尚未初始化: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, DATA_OFFSET);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("文件尚未初始化或版本不支持: " + file);
+            }
+            int capacity = header.getInt(CAPACITY_OFFSET);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + (long) capacity);
+            return new SharedMemoryRing(file, channel, null, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 写入一条记录，只能由生产者调用
+     *
+     * @param payload 记录内容，不能为空
+     */
+    synchronized void write(byte[] payload) {
+        int recordSize = align(RECORD_HEADER_SIZE + payload.length);
+        checkArgument(payload.length > 0 && recordSize <= capacity, "记录长度必须在1到%s之间", capacity - RECORD_HEADER_SIZE);
+        int index = (int) (position & mask);
+        int remaining = capacity - index;
+        if (remaining < recordSize) {
+            // 记录头按8字节对齐，剩余空间不足记录头时消费者自行跳过，无需标记
+            if (remaining >= RECORD_HEADER_SIZE) {
+                buffer.putLong(DATA_OFFSET + index + 8, position);
+                buffer.putInt(DATA_OFFSET + index, PADDING);
+            }
+            position += remaining;
+            index = 0;
+        }
+        int offset = DATA_OFFSET + index;
+        ByteBuffer data = buffer.duplicate();
+        data.position(offset + RECORD_HEADER_SIZE);
+        data.put(payload);
+        buffer.putLong(offset + 8, position);
+        buffer.putInt(offset + 4, crc(payload));
+        buffer.putInt(offset, payload.length);
+        position += recordSize;
+        buffer.putLong(WRITE_POSITION_OFFSET, position);
+    }
+
+    /**
+     * 读取下一条记录，只能在消费线程中调用
+     *
+     * @return 没有新记录时返回null
+     */
+    byte[] poll() {
+        while (true) {
+            long writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+            if (position >= writePosition) {
+                return null;
+            }
+            if (writePosition - position > capacity) {
+                overrun(writePosition);
+                continue;
+            }
+            int index = (int) (position & mask);
+            int remaining = capacity - index;
+            if (remaining < RECORD_HEADER_SIZE) {
+                position += remaining;
+                continue;
+            }
+            int offset = DATA_OFFSET + index;
+            int length = buffer.getInt(offset);
+            if (buffer.getLong(offset + 8) != position) {
+                // 记录头尚未可见，或刚被下一圈覆盖
+                if (buffer.getLong(WRITE_POSITION_OFFSET) - position > capacity) {
+                    continue;
+                }
+                return null;
+            }
+            if (length == PADDING) {
+                position += remaining;
+                continue;
+            }
+            if (length <= 0 || length > remaining - RECORD_HEADER_SIZE) {
+                return null;
+            }
+            int crc = buffer.getInt(offset + 4);
+            byte[] payload = new byte[length];
+            ByteBuffer data = buffer.duplicate();
+            data.position(offset + RECORD_HEADER_SIZE);
+            data.get(payload);
+            if (buffer.getLong(WRITE_POSITION_OFFSET) - position > capacity) {
+                // 读取期间被覆盖
+                continue;
+            }
+            if (crc(payload) != crc) {
+                return null;
+            }
+            position += align(RECORD_HEADER_SIZE + length);
+            return payload;
+        }
+    }
+
+    private void overrun(long writePosition) {
+        overruns = overruns + 1;
+        logger.warn("shared memory ring consumer overrun, file:{}, skipped bytes:{}", file, writePosition - position);
+        position = writePosition;
+    }
+
+    /**
+     * 消费者因落后超过一圈而跳过记录的次数
+     */
+    long getOverruns() {
+        return overruns;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (producerLock != null) {
+                producerLock.release();
+            }
+            // 映射内存在buffer被回收后释放
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("close shared memory ring failed, file:{}", file, e);
+        }
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+}
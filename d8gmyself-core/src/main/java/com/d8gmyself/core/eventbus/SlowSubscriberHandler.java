@@ -0,0 +1,25 @@
+package com.d8gmyself.core.eventbus;
+
+import java.lang.reflect.Method;
+
+/**
+ * 慢订阅者处理，订阅者单次执行超过{@link EventBus.EventBusBuilder#setWatchdog(long, boolean)}配置的耗时预算时调用
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public interface SlowSubscriberHandler {
+
+    /**
+     * 处理慢订阅者，每次超时的执行只调用一次
+     *
+     * @param subscriber       订阅者对象
+     * @param subscriberMethod 超时的事件处理方法
+     * @param event            正在处理的事件，批量订阅者为事件列表
+     * @param elapsedMillis    已执行的毫秒数
+     * @param stackTrace       执行线程当前的调用栈
+     * @param isolated         该订阅者是否已被迁移到独立线程池
+     */
+    void handleSlowSubscriber(Object subscriber, Method subscriberMethod, Object event, long elapsedMillis,
+                              StackTraceElement[] stackTrace, boolean isolated);
+
+}
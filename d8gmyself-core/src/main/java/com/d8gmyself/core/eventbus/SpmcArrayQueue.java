@@ -0,0 +1,93 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 有界的单生产者多消费者无锁队列
+ * <p>
+ * 生产者入队没有CAS，只写元素和自己的位置；消费者之间通过CAS消费位置竞争，
+ * 因此只有多个消费者同时出队时才有竞争
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class SpmcArrayQueue<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    /**
+     * 生产者下一个写入的位置，只由生产者线程更新
+     */
+    private volatile long producerIndex;
+    /**
+     * 下一个出队的位置
+     */
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * @param capacity 容量，必须是2的幂
+     */
+    SpmcArrayQueue(int capacity) {
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity必须是2的幂");
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 入队，只能由生产者线程调用
+     *
+     * @param e 元素，不能为null
+     * @return 队列已满时返回false
+     */
+    boolean offer(E e) {
+        long index = producerIndex;
+        if (index - consumerIndex.get() > mask) {
+            return false;
+        }
+        buffer.lazySet((int) index & mask, e);
+        // volatile写保证消费者读到新位置时元素已可见
+        producerIndex = index + 1;
+        return true;
+    }
+
+    /**
+     * 出队，可由任意线程调用
+     *
+     * @return 队首元素，队列为空时返回null
+     */
+    E poll() {
+        while (true) {
+            long index = consumerIndex.get();
+            if (index >= producerIndex) {
+                return null;
+            }
+            int offset = (int) index & mask;
+            E e = buffer.get(offset);
+            // 生产者只有在消费位置越过index后才会覆盖该槽位，此时CAS必然失败
+            if (consumerIndex.compareAndSet(index, index + 1)) {
+                // 槽位已被生产者覆盖时不清除
+                buffer.compareAndSet(offset, e, null);
+                return e;
+            }
+        }
+    }
+
+    /**
+     * @return 当前元素数，并发出队时可能偏小，由生产者线程调用时不会偏大
+     */
+    int size() {
+        return (int) (producerIndex - consumerIndex.get());
+    }
+
+    boolean isEmpty() {
+        return consumerIndex.get() >= producerIndex;
+    }
+
+    int capacity() {
+        return buffer.length();
+    }
+
+}
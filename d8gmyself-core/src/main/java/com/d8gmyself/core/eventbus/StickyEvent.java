@@ -0,0 +1,29 @@
+package com.d8gmyself.core.eventbus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 粘性事件注解，用于标记事件类型
+ * <p>
+ * 事件总线为该类型保留最近发布的{@link #value()}个事件（包括没有订阅者的事件），
+ * 之后注册的订阅者在收到实时事件之前，会先按发布顺序收到保留的事件。
+ * 保留的事件只占用固定大小的内存，非粘性事件的发布不受影响。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface StickyEvent {
+
+    /**
+     * 保留最近的事件数
+     */
+    int value() default 1;
+
+}
@@ -0,0 +1,105 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 某一粘性事件类型最近发布的事件，定长环形数组，无锁
+ * <p>
+ * 发布时通过{@code getAndIncrement}取得序号后以CAS写入对应槽位，新事件覆盖最旧的事件，
+ * 并发发布的事件落在同一槽位时只保留序号较大的事件，较旧的事件不会覆盖较新的事件；
+ * 读取时只返回序号与槽位一致的记录，尚未写完或已被覆盖的槽位会被跳过。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class StickyEventRing {
+
+    private final Class<?> eventClass;
+    private final int capacity;
+    private final AtomicReferenceArray<Entry> slots;
+    /**
+     * 下一个事件的序号
+     */
+    private final AtomicLong cursor = new AtomicLong();
+
+    StickyEventRing(Class<?> eventClass, int capacity) {
+        checkArgument(capacity > 0, "StickyEvent保留的事件数必须大于0: %s", eventClass);
+        this.eventClass = eventClass;
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return 事件类型标记了{@link StickyEvent}时返回新的环形数组，否则返回null
+     */
+    static StickyEventRing of(Class<?> eventClass) {
+        StickyEvent stickyEvent = eventClass.getAnnotation(StickyEvent.class);
+        return stickyEvent == null ? null : new StickyEventRing(eventClass, stickyEvent.value());
+    }
+
+    Class<?> getEventClass() {
+        return eventClass;
+    }
+
+    /**
+     * 保留事件
+     *
+     * @param event 事件
+     * @param topic 发布的主题，没有时为null
+     */
+    void add(Object event, String topic) {
+        long sequence = cursor.getAndIncrement();
+        int index = (int) (sequence % capacity);
+        Entry entry = new Entry(sequence, event, topic);
+        while (true) {
+            Entry current = slots.get(index);
+            if (current != null && current.sequence > sequence) {
+                // 之后发布的事件已写入该槽位
+                return;
+            }
+            if (slots.compareAndSet(index, current, entry)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按发布顺序读取当前保留的事件
+     *
+     * @param result 读取结果
+     */
+    void snapshot(List<Entry> result) {
+        long end = cursor.get();
+        for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++) {
+            Entry entry = slots.get((int) (sequence % capacity));
+            if (entry != null && entry.sequence == sequence) {
+                result.add(entry);
+            }
+        }
+    }
+
+    static final class Entry {
+        private final long sequence;
+        private final Object event;
+        private final String topic;
+
+        private Entry(long sequence, Object event, String topic) {
+            this.sequence = sequence;
+            this.event = event;
+            this.topic = topic;
+        }
+
+        Object getEvent() {
+            return event;
+        }
+
+        String getTopic() {
+            return topic;
+        }
+    }
+
+}
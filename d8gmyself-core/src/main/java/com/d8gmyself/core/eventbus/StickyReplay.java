@@ -0,0 +1,123 @@
+package com.d8gmyself.core.eventbus;
+
+import com.google.common.collect.Lists;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 新注册的订阅者回放粘性事件期间的实时事件缓冲
+ * <p>
+ * 订阅者对分发可见之前就装上缓冲，回放期间实时事件先缓冲起来，回放结束后按到达顺序补发，
+ * 因此订阅者总是先收到回放的事件；回放期间实时到达的、已经在回放中的同一事件对象不再重复投递。
+ * 实时事件可能在读取保留的事件之前就已缓冲，补发时同样跳过已回放的事件。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class StickyReplay {
+
+    private final Subscriber subscriber;
+    private final Class<?> eventType;
+    /**
+     * 要回放的事件，按发布顺序
+     */
+    private final List<Object> events = Lists.newArrayList();
+    /**
+     * 回放的事件对象，按==比较
+     */
+    private final Map<Object, Boolean> replayed = new IdentityHashMap<>();
+    /**
+     * 缓冲的实时事件，持有this锁时访问
+     */
+    private final List<Object[]> buffered = Lists.newArrayList();
+    private boolean closed;
+
+    /**
+     * @param subscriber 新注册的订阅者
+     * @param eventType  订阅者订阅的事件类型
+     */
+    StickyReplay(Subscriber subscriber, Class<?> eventType) {
+        this.subscriber = subscriber;
+        this.eventType = eventType;
+    }
+
+    Subscriber getSubscriber() {
+        return subscriber;
+    }
+
+    Class<?> getEventType() {
+        return eventType;
+    }
+
+    /**
+     * 加入要回放的事件，在注册时持有{@link SubscriberRegistry}的锁调用
+     */
+    synchronized void add(Object event) {
+        events.add(event);
+        replayed.put(event, Boolean.TRUE);
+    }
+
+    /**
+     * 回放期间缓冲实时事件
+     *
+     * @param currentThread 是否由{@link Subscriber#processEventInCurrentThread(Object, PostCompletion)}投递
+     * @return 已缓冲或已回放过时返回true，回放已结束时返回false，由调用方直接处理
+     */
+    synchronized boolean offerLive(Object event, PostCompletion completion, boolean currentThread) {
+        if (closed) {
+            return false;
+        }
+        if (!replayed.containsKey(event)) {
+            if (completion != null) {
+                // 补发前保持未完成
+                completion.retain();
+            }
+            buffered.add(new Object[]{event, completion, currentThread});
+        }
+        return true;
+    }
+
+    /**
+     * 回放保留的事件，然后补发缓冲的实时事件并移除缓冲，在注册线程中调用
+     */
+    void replay() {
+        try {
+            for (Object event : events) {
+                subscriber.process(event, null, false);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * 持有锁补发，期间到达的实时事件等待补发结束，保证顺序
+     */
+    private synchronized void close() {
+        try {
+            for (Object[] live : buffered) {
+                PostCompletion completion = (PostCompletion) live[1];
+                Throwable failure = null;
+                try {
+                    // 缓冲时该事件可能还未加入回放
+                    if (!replayed.containsKey(live[0])) {
+                        subscriber.process(live[0], completion, (Boolean) live[2]);
+                    }
+                } catch (RuntimeException e) {
+                    failure = e;
+                } finally {
+                    if (completion != null) {
+                        completion.onComplete(failure);
+                    }
+                }
+            }
+        } finally {
+            buffered.clear();
+            closed = true;
+            subscriber.endReplay();
+        }
+    }
+
+}
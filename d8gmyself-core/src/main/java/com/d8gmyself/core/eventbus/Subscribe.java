@@ -29,4 +29,98 @@ public @interface Subscribe {
      */
     int order() default Integer.MAX_VALUE - 1;
 
+    /**
+     * 每批最多处理的事件数
+     * <p>
+     * 仅对参数为{@code List<事件类型>}的批量订阅方法生效，攒够该数量的事件后立即处理
+     * </p>
+     */
+    int batchSize() default 100;
+
+    /**
+     * 批次中第一个事件最多等待的毫秒数
+     * <p>
+     * 仅对参数为{@code List<事件类型>}的批量订阅方法生效，到时未攒够{@link #batchSize()}也会处理
+     * </p>
+     */
+    long lingerMillis() default 100;
+
+    /**
+     * 分区key提取
+     * <p>
+     * 仅对异步订阅者生效，key相同的事件按发布顺序在同一分区中串行处理，不同分区之间并行处理；
+     * 默认{@link KeyExtractor}本身，表示不分区。环形队列、日志和分片模式下不能使用
+     * </p>
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends KeyExtractor> partitionKey() default KeyExtractor.class;
+
+    /**
+     * 分区数，小于等于0时取CPU核数，仅在配置了{@link #partitionKey()}时生效
+     */
+    int partitions() default 0;
+
+    /**
+     * 合并key提取
+     * <p>
+     * 仅对异步订阅者生效，用于“最新状态为准”的事件：尚未处理的事件会被同key的新事件替换，订阅者只处理最新的一个；
+     * 合并后的事件串行处理。默认{@link KeyExtractor}本身，表示不合并。环形队列、日志和分片模式下不能使用
+     * </p>
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends KeyExtractor> conflationKey() default KeyExtractor.class;
+
+    /**
+     * 订阅的主题，以{@code .}分隔，如{@code order.*.paid}
+     * <p>
+     * {@code *}匹配一级，{@code #}匹配零到多级，通配符必须单独作为一级。
+     * 配置后只处理通过{@link EventBus#post(String, Object)}发布到匹配主题、且类型匹配的事件；
+     * 默认为空，表示不按主题过滤，处理所有类型匹配的事件（包括发布到任意主题的事件）
+     * </p>
+     */
+    String topic() default "";
+
+    /**
+     * 最多执行次数（含第一次），大于1时失败后按退避时间重试
+     * <p>
+     * 仅对异步订阅者生效；重试由事件总线的定时线程调度，等待期间不占用线程池线程，
+     * 重试时重新进入订阅者的队列，可能排在之后发布的事件后面。
+     * 重试用尽后才交给{@link SubscriberExceptionHandler}，并放入{@link DeadLetterQueue}
+     * </p>
+     */
+    int maxAttempts() default 1;
+
+    /**
+     * 第一次重试前等待的毫秒数
+     */
+    long retryBackoffMillis() default 100;
+
+    /**
+     * 每次重试后等待时间的倍数，不小于1
+     */
+    double retryBackoffMultiplier() default 2.0;
+
+    /**
+     * 重试等待时间的上限（毫秒）
+     */
+    long maxRetryBackoffMillis() default 10000;
+
+    /**
+     * 每秒最多执行的事件数（令牌桶，最多积攒1秒的令牌），小于等于0表示不限制
+     * <p>
+     * 仅对异步订阅者生效，超出的事件在订阅者的队列中等待，不占用线程池线程，也不会被拒绝；
+     * 不能与{@link #conflationKey()}同时使用，环形队列、日志和分片模式下不能使用
+     * </p>
+     */
+    double permitsPerSecond() default 0;
+
+    /**
+     * 同时执行的事件数上限，小于等于0表示不限制
+     * <p>
+     * 仅对异步订阅者生效，超出的事件在订阅者的队列中等待，不占用线程池线程，也不会被拒绝；
+     * 不能与{@link #conflationKey()}同时使用，环形队列、日志和分片模式下不能使用
+     * </p>
+     */
+    int maxInFlight() default 0;
+
 }
@@ -1,9 +1,13 @@
 package com.d8gmyself.core.eventbus;
 
-import java.lang.reflect.InvocationTargetException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.lang.reflect.Method;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -14,85 +18,371 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class Subscriber {
 
+    private static final Logger logger = LoggerFactory.getLogger(Subscriber.class);
+
     private final EventBus bus;
     private final Method method;
+    private final SubscriberInvoker invoker;
     private final Object target;
     private final int order;
+    /**
+     * 注册序号，order相同时按注册顺序执行
+     */
+    private final long sequence;
+    /**
+     * 订阅的主题，不按主题过滤时为null
+     */
+    private final String topic;
     private final boolean allowConccurrency;
     private final boolean async;
-    private final ExecutorService executor;
+    /**
+     * 被{@link SubscriberWatchdog}隔离后替换为独占的线程池
+     */
+    private volatile ExecutorService executor;
+    private volatile boolean isolated;
+    /**
+     * 不允许并发或配置了合并key的异步订阅者使用信箱串行执行，其余为null
+     */
+    private final SubscriberMailbox mailbox;
+    /**
+     * 批量订阅者的事件缓冲，其余为null
+     */
+    private final SubscriberBatcher batcher;
+    /**
+     * 配置了分区key的异步订阅者，每个分区一个信箱，其余为null
+     */
+    private final SubscriberMailbox[] partitions;
+    private final KeyExtractor<Object> partitionKeyExtractor;
+    /**
+     * 未开启统计时为null
+     */
+    private final SubscriberMetrics metrics;
+    /**
+     * 不重试时为null
+     */
+    private final RetryPolicy retryPolicy;
+    /**
+     * 未配置限流或非异步订阅者时为null
+     */
+    private final SubscriberLimiter limiter;
+    /**
+     * 取消订阅后为false，不再重试
+     */
+    private volatile boolean active = true;
+    /**
+     * 注册后回放粘性事件期间的实时事件缓冲，其余时间为null
+     */
+    private volatile StickyReplay stickyReplay;
 
-    Subscriber(EventBus bus, Method method, Object target, int order, boolean allowConccurrency, boolean async, ExecutorService executor) {
+    Subscriber(EventBus bus, Method method, SubscriberInvoker invoker, Object target, Subscribe subscribe, boolean batch,
+               ExecutorService executor, long sequence) {
         this.bus = bus;
         this.method = method;
+        this.invoker = invoker;
         this.target = target;
-        this.order = order;
-        this.allowConccurrency = allowConccurrency;
-        this.async = async;
+        this.order = subscribe.order();
+        this.sequence = sequence;
+        this.topic = subscribe.topic().isEmpty() ? null : subscribe.topic();
+        this.allowConccurrency = subscribe.allowConcurrency();
+        this.async = subscribe.async();
         this.executor = executor;
-        method.setAccessible(true);
+        this.metrics = bus.metrics() == null ? null : bus.metrics().subscriberMetrics(method);
+        this.retryPolicy = RetryPolicy.of(subscribe);
+        this.limiter = async && executor != null ? SubscriberLimiter.of(this, bus, subscribe) : null;
+        this.mailbox = createMailbox(subscribe, executor != null);
+        this.batcher = batch ? new SubscriberBatcher(bus, this, subscribe.batchSize(), subscribe.lingerMillis()) : null;
+        this.partitionKeyExtractor = async && executor != null ? KeyExtractors.of(subscribe.partitionKey()) : null;
+        this.partitions = partitionKeyExtractor != null ? createPartitions(subscribe.partitions()) : null;
+    }
+
+    private SubscriberMailbox createMailbox(Subscribe subscribe, boolean hasExecutor) {
+        if (!async || !hasExecutor) {
+            return null;
+        }
+        KeyExtractor<Object> conflationKeyExtractor = KeyExtractors.of(subscribe.conflationKey());
+        if (conflationKeyExtractor != null) {
+            return new ConflatingMailbox(this, conflationKeyExtractor);
+        }
+        return allowConccurrency ? null : new SubscriberMailbox(this);
+    }
+
+    private SubscriberMailbox[] createPartitions(int partitionCount) {
+        if (partitionCount <= 0) {
+            partitionCount = Runtime.getRuntime().availableProcessors();
+        }
+        SubscriberMailbox[] mailboxes = new SubscriberMailbox[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            mailboxes[i] = new SubscriberMailbox(this);
+        }
+        return mailboxes;
     }
 
     /**
      * 处理事件
      *
-     * @param event 要处理的事件信息
+     * @param event      要处理的事件信息
+     * @param completion {@link EventBus#postAsync(Object)}的完成状态，其余为null
      */
-    void processEvent(Object event) {
-        if (async && executor != null) {
-            executor.execute(() -> {
-                invokeSubscriberMethod(event);
-            });
+    void processEvent(Object event, PostCompletion completion) {
+        StickyReplay replay = stickyReplay;
+        if (replay != null && replay.offerLive(event, completion, false)) {
+            return;
+        }
+        process(event, completion, false);
+    }
+
+    /**
+     * 在当前线程处理事件，供自行管理线程的分发器使用，批量订阅者仍先进入批次缓冲
+     *
+     * @param event      要处理的事件信息
+     * @param completion {@link EventBus#postAsync(Object)}的完成状态，其余为null
+     */
+    void processEventInCurrentThread(Object event, PostCompletion completion) {
+        StickyReplay replay = stickyReplay;
+        if (replay != null && replay.offerLive(event, completion, true)) {
+            return;
+        }
+        process(event, completion, true);
+    }
+
+    /**
+     * 处理事件，不经过粘性事件回放期间的缓冲
+     *
+     * @param event         要处理的事件信息
+     * @param completion    {@link EventBus#postAsync(Object)}的完成状态，其余为null
+     * @param currentThread 是否在当前线程处理
+     */
+    void process(Object event, PostCompletion completion, boolean currentThread) {
+        if (completion != null) {
+            completion.retain();
+        }
+        if (batcher != null) {
+            batcher.add(event, completion);
+        } else if (currentThread) {
+            invoke(event, !allowConccurrency, completion);
+        } else {
+            deliver(event, completion);
+        }
+    }
+
+    /**
+     * 交给事件处理方法执行，异步订阅者提交到线程池，环形队列、日志和分片模式下交回分发器线程
+     *
+     * @param payload  事件，批量订阅者为事件列表
+     * @param callback 处理完成后的回调，不需要时为null
+     */
+    void deliver(Object payload, DeliveryCallback callback) {
+        if (limiter != null) {
+            limiter.offer(new QueuedEvent(payload, metrics != null ? System.nanoTime() : 0L, callback, 1, true));
+            return;
+        }
+        if ((metrics != null || callback != null) && async && (executor != null || bus.dispatcherRunsAsyncSubscribers())) {
+            payload = new QueuedEvent(payload, metrics != null ? System.nanoTime() : 0L, callback);
+        }
+        enqueue(payload, callback);
+    }
+
+    /**
+     * 限流放行后投递
+     *
+     * @param payload 限流的事件
+     */
+    void enqueueLimited(Object payload) {
+        enqueue(payload, ((QueuedEvent) payload).getCallback());
+    }
+
+    private void enqueue(Object payload, DeliveryCallback callback) {
+        if (mailbox != null) {
+            mailbox.offer(payload);
+        } else if (partitions != null) {
+            partitionOf(payload).offer(payload);
+        } else if (async && bus.dispatcherRunsAsyncSubscribers()) {
+            // 环形队列、日志和分片模式下交回分发器线程执行，不占用共享线程池
+            bus.redeliver(this, payload);
+        } else if (async && executor != null) {
+            Object queuedPayload = payload;
+            try {
+                executor.execute(() -> {
+                    invokeSubscriberMethod(queuedPayload);
+                });
+            } catch (RuntimeException e) {
+                if (callback != null) {
+                    callback.onComplete(e);
+                }
+                throw e;
+            }
         } else {
-            invokeSubscriberMethod(event);
+            invoke(payload, !allowConccurrency, callback);
+        }
+    }
+
+    private SubscriberMailbox partitionOf(Object payload) {
+        int hash = Objects.hashCode(partitionKeyExtractor.extract(QueuedEvent.unwrap(payload)));
+        // 打散高位，避免key的hashCode只有高位不同时集中到同一分区
+        hash ^= (hash >>> 16);
+        return partitions[Math.floorMod(hash, partitions.length)];
+    }
+
+    /**
+     * 立即处理批量订阅者缓冲的事件
+     */
+    void flushBatch() {
+        if (batcher != null) {
+            batcher.flush();
         }
     }
 
     /**
      * 执行事件处理方法
      *
-     * @param event 要处理的事件
+     * @param payload 要处理的事件
      */
-    private void invokeSubscriberMethod(Object event) {
+    void invokeSubscriberMethod(Object payload) {
+        invoke(payload, !allowConccurrency, null);
+    }
+
+    /**
+     * 执行事件处理方法，不加锁，由调用方（{@link SubscriberMailbox}）保证串行
+     *
+     * @param payload 要处理的事件
+     */
+    void invokeSubscriberMethodSerially(Object payload) {
+        invoke(payload, false, null);
+    }
+
+    /**
+     * @param payload     要处理的事件，异步投递时可能是{@link QueuedEvent}
+     * @param synchronize 是否加锁执行
+     * @param callback    处理完成后的回调，{@code payload}为{@link QueuedEvent}时使用其中的回调
+     */
+    private void invoke(Object payload, boolean synchronize, DeliveryCallback callback) {
+        Object event = payload;
+        int attempt = 1;
+        boolean limited = false;
+        long startNanos = 0;
+        if (metrics != null) {
+            startNanos = System.nanoTime();
+        }
+        if (payload instanceof QueuedEvent) {
+            QueuedEvent queuedEvent = (QueuedEvent) payload;
+            if (metrics != null) {
+                metrics.recordQueueWait(startNanos - queuedEvent.getEnqueueNanos());
+            }
+            event = queuedEvent.getEvent();
+            callback = queuedEvent.getCallback();
+            attempt = queuedEvent.getAttempt();
+            limited = queuedEvent.isLimited();
+        }
+        Throwable failure = null;
+        SubscriberWatchdog watchdog = bus.watchdog();
+        SubscriberWatchdog.Slot watchdogSlot = watchdog != null ? watchdog.begin(this, event) : null;
         try {
-            if (allowConccurrency) {
-                invokeSubscriberMethodConcurrency(event);
-            } else {
+            if (synchronize) {
                 invokeSubscriberMethodSync(event);
+            } else {
+                invokeSubscriberMethodConcurrency(event);
             }
         } catch (Throwable e) {
-            bus.handleSubscriberException(e, target, method, event);
+            failure = e;
+        } finally {
+            if (watchdogSlot != null) {
+                watchdog.end(watchdogSlot);
+            }
+        }
+        if (metrics != null) {
+            metrics.recordInvocation(System.nanoTime() - startNanos, failure != null);
+        }
+        if (limited) {
+            limiter.release();
+        }
+        if (failure != null && scheduleRetry(event, attempt, failure, callback)) {
+            return;
+        }
+        try {
+            if (failure != null) {
+                bus.handleSubscriberException(failure, target, method, event);
+                if (async) {
+                    bus.deadLetter(this, event, attempt, failure);
+                }
+            }
+        } finally {
+            if (callback != null) {
+                callback.onComplete(failure);
+            }
         }
     }
 
     /**
-     * 执行事件处理方法
+     * 失败后按重试策略在定时线程中延迟重新投递，等待期间不占用线程
      *
-     * @param event 要处理的事件
-     * @throws InvocationTargetException
+     * @return 是否已安排重试
      */
-    private void invokeSubscriberMethodConcurrency(Object event) throws InvocationTargetException {
+    private boolean scheduleRetry(Object event, int attempt, Throwable failure, DeliveryCallback callback) {
+        if (retryPolicy == null || !retryPolicy.canRetry(attempt) || !active) {
+            return false;
+        }
+        long delayMillis = retryPolicy.backoffMillis(attempt);
+        try {
+            bus.scheduler().schedule(() -> retry(event, attempt + 1, failure, callback), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 事件总线已关闭
+            return false;
+        }
+        logger.warn("subscriber {} failed on attempt {}, retry in {}ms, event:{}", method, attempt, delayMillis, event, failure);
+        return true;
+    }
+
+    private void retry(Object event, int attempt, Throwable lastFailure, DeliveryCallback callback) {
+        if (!active) {
+            // 已取消订阅，放弃重试
+            if (callback != null) {
+                callback.onComplete(lastFailure);
+            }
+            return;
+        }
         try {
-            method.invoke(target, checkNotNull(event));
-        } catch (IllegalArgumentException e) {
-            throw new Error("Method rejected target/argument: " + event, e);
-        } catch (IllegalAccessException e) {
-            throw new Error("Method became inaccessible: " + event, e);
-        } catch (InvocationTargetException e) {
-            if (e.getCause() instanceof Error) {
-                throw (Error) e.getCause();
+            // 未配置线程池时在定时线程中执行，环形队列、日志和分片模式下交回分发器线程，配置了限流时重试同样受限
+            QueuedEvent retried = new QueuedEvent(event, metrics != null ? System.nanoTime() : 0L, callback, attempt, limiter != null);
+            if (limiter != null) {
+                limiter.offer(retried);
+            } else {
+                enqueue(retried, callback);
             }
-            throw e;
+        } catch (RuntimeException e) {
+            logger.error("subscriber {} retry rejected, event:{}", method, event, e);
         }
     }
 
+    /**
+     * 重新投递死信中的事件，重新计算重试次数
+     *
+     * @return 已取消订阅时返回false
+     */
+    boolean replay(Object payload) {
+        if (!active) {
+            return false;
+        }
+        deliver(payload, null);
+        return true;
+    }
+
+    /**
+     * 执行事件处理方法
+     *
+     * @param event 要处理的事件
+     * @throws Throwable 事件处理方法抛出的异常
+     */
+    private void invokeSubscriberMethodConcurrency(Object event) throws Throwable {
+        invoker.invoke(target, checkNotNull(event));
+    }
+
     /**
      * 执行事件处理方法
      *
      * @param event 要处理的事件
-     * @throws InvocationTargetException
+     * @throws Throwable 事件处理方法抛出的异常
      */
-    private void invokeSubscriberMethodSync(Object event) throws InvocationTargetException {
+    private void invokeSubscriberMethodSync(Object event) throws Throwable {
         synchronized (this) {
             invokeSubscriberMethodConcurrency(event);
         }
@@ -112,8 +402,85 @@ public class Subscriber {
         return Objects.hash(method, target);
     }
 
+    void beginReplay(StickyReplay replay) {
+        this.stickyReplay = replay;
+    }
+
+    void endReplay() {
+        this.stickyReplay = null;
+    }
+
+    /**
+     * 是否可以隔离，只有使用线程池的异步订阅者可以隔离
+     */
+    boolean canIsolate() {
+        return async && executor != null && !isolated;
+    }
+
+    /**
+     * 之后的事件改为提交到独占的线程池，已提交到原线程池的事件仍在原线程池执行。
+     * 只在事件总线的定时线程中调用，不能与{@link #invokeSubscriberMethodSync(Object)}共用锁，否则会被卡住的订阅者阻塞
+     *
+     * @param isolatedExecutor 独占的线程池
+     * @return 已隔离或不能隔离时返回false
+     */
+    boolean isolate(ExecutorService isolatedExecutor) {
+        if (!canIsolate()) {
+            return false;
+        }
+        this.executor = isolatedExecutor;
+        this.isolated = true;
+        return true;
+    }
+
+    boolean isIsolated() {
+        return isolated;
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    void deactivate() {
+        this.active = false;
+        // 先标记再移除，之后失败的事件不会再放入死信队列
+        bus.removeDeadLetters(this);
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    Object getTarget() {
+        return target;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
     int getOrder() {
         return order;
     }
 
+    long getSequence() {
+        return sequence;
+    }
+
+    String getTopic() {
+        return topic;
+    }
+
+    boolean isAsync() {
+        return async;
+    }
+
+    boolean allowsConcurrency() {
+        return allowConccurrency;
+    }
+
+    boolean isBatch() {
+        return batcher != null;
+    }
+
 }
@@ -0,0 +1,170 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量订阅者的事件缓冲
+ * <p>
+ * 攒够{@link Subscribe#batchSize()}个事件，或第一个事件等待超过{@link Subscribe#lingerMillis()}时，
+ * 将整批事件作为一个{@link List}交给订阅者处理。
+ * 等待超时的批次由事件总线的定时线程触发，订阅者不在定时线程中执行：异步订阅者仍按原方式投递（线程池或分发器线程），
+ * 同步订阅者提交到事件总线的线程池（未配置时为{@link ForkJoinPool#commonPool()}）。
+ * 批次因攒满或{@link #flush()}被取走时取消等待，下一批次从第一个事件开始重新计时。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+class SubscriberBatcher {
+
+    private final EventBus bus;
+    private final Subscriber subscriber;
+    private final int batchSize;
+    private final long lingerMillis;
+    /**
+     * 当前批次，为null表示没有缓冲的事件
+     */
+    private List<Object> buffer;
+    /**
+     * 当前批次中事件的完成回调，批次中没有需要回调的事件时为null
+     */
+    private List<DeliveryCallback> callbacks;
+    /**
+     * 当前批次的等待定时器，没有等待中的定时器时为null
+     */
+    private ScheduledFuture<?> lingerTimer;
+    /**
+     * 批次序号，每取走一个批次加1，定时器只处理创建时的批次，已取消但仍触发的定时器不会提前取走后面的批次
+     */
+    private long generation;
+
+    SubscriberBatcher(EventBus bus, Subscriber subscriber, int batchSize, long lingerMillis) {
+        this.bus = bus;
+        this.subscriber = subscriber;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * 加入当前批次，批次已满时立即处理
+     *
+     * @param event    事件
+     * @param callback 该事件处理完成后的回调，不需要时为null
+     */
+    void add(Object event, DeliveryCallback callback) {
+        List<Object> batch = null;
+        DeliveryCallback batchCallback = null;
+        synchronized (this) {
+            if (buffer == null) {
+                buffer = new ArrayList<>(batchSize);
+            }
+            buffer.add(event);
+            if (callback != null) {
+                if (callbacks == null) {
+                    callbacks = new ArrayList<>();
+                }
+                callbacks.add(callback);
+            }
+            if (buffer.size() >= batchSize) {
+                batch = buffer;
+                batchCallback = takeCallbacks();
+                takeBatch();
+            } else if (lingerTimer == null) {
+                long batchGeneration = generation;
+                lingerTimer = bus.scheduler().schedule(() -> linger(batchGeneration), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            subscriber.deliver(batch, batchCallback);
+        }
+    }
+
+    /**
+     * 立即处理当前批次
+     */
+    void flush() {
+        List<Object> batch;
+        DeliveryCallback batchCallback;
+        synchronized (this) {
+            batch = buffer;
+            batchCallback = takeCallbacks();
+            takeBatch();
+        }
+        if (batch != null) {
+            subscriber.deliver(batch, batchCallback);
+        }
+    }
+
+    /**
+     * 清空当前批次并取消它的等待定时器，持有锁时调用
+     */
+    private void takeBatch() {
+        buffer = null;
+        generation++;
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+    }
+
+    /**
+     * 取出当前批次的回调，合并为一个回调，整批处理完成后逐个通知
+     */
+    private DeliveryCallback takeCallbacks() {
+        List<DeliveryCallback> batchCallbacks = callbacks;
+        callbacks = null;
+        if (batchCallbacks == null) {
+            return null;
+        }
+        if (batchCallbacks.size() == 1) {
+            return batchCallbacks.get(0);
+        }
+        return failure -> {
+            for (DeliveryCallback callback : batchCallbacks) {
+                callback.onComplete(failure);
+            }
+        };
+    }
+
+    /**
+     * 等待超时，在定时线程中执行
+     *
+     * @param batchGeneration 定时器对应的批次序号
+     */
+    private void linger(long batchGeneration) {
+        List<Object> batch;
+        DeliveryCallback batchCallback;
+        synchronized (this) {
+            if (batchGeneration != generation) {
+                // 批次已被取走
+                return;
+            }
+            // 定时器已触发，不需要取消
+            lingerTimer = null;
+            batch = buffer;
+            batchCallback = takeCallbacks();
+            takeBatch();
+        }
+        if (batch == null) {
+            return;
+        }
+        if (subscriber.isAsync()) {
+            subscriber.deliver(batch, batchCallback);
+            return;
+        }
+        // 同步订阅者不占用定时线程，避免耗时的订阅者推迟其他定时任务
+        Executor executor = bus.getExecutor() != null ? bus.getExecutor() : ForkJoinPool.commonPool();
+        try {
+            executor.execute(() -> subscriber.deliver(batch, batchCallback));
+        } catch (RejectedExecutionException e) {
+            // 线程池已关闭，仍在定时线程中处理，不丢弃事件
+            subscriber.deliver(batch, batchCallback);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 订阅者索引，由d8gmyself-processor在编译期生成，通过{@link java.util.ServiceLoader}加载
+ * <p>
+ * 被索引的类（包括订阅者的父类和接口）直接使用索引中的方法信息，不再扫描该类的全部方法；未被索引的类仍通过反射查找
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public interface SubscriberIndex {
+
+    /**
+     * 获取类中直接声明的订阅方法，不包含父类和接口中的方法
+     *
+     * @param clazz 订阅者类型
+     * @return 订阅方法，类中没有订阅方法时为空数组，未被该索引收录时返回null
+     */
+    SubscriberMethodInfo[] getSubscriberMethods(Class<?> clazz);
+
+}
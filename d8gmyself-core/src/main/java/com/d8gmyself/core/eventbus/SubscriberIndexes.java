@@ -0,0 +1,58 @@
+package com.d8gmyself.core.eventbus;
+
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * classpath中所有{@link SubscriberIndex}
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class SubscriberIndexes {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriberIndexes.class);
+
+    private static final List<SubscriberIndex> INDEXES = load();
+
+    private SubscriberIndexes() {
+    }
+
+    /**
+     * 查找类中直接声明的订阅方法
+     *
+     * @param clazz 订阅者类型
+     * @return 订阅方法，所有索引都未收录时返回null
+     */
+    static SubscriberMethodInfo[] find(Class<?> clazz) {
+        for (SubscriberIndex index : INDEXES) {
+            SubscriberMethodInfo[] methods = index.getSubscriberMethods(clazz);
+            if (methods != null) {
+                return methods;
+            }
+        }
+        return null;
+    }
+
+    private static List<SubscriberIndex> load() {
+        ImmutableList.Builder<SubscriberIndex> indexes = ImmutableList.builder();
+        Iterator<SubscriberIndex> iterator = ServiceLoader.load(SubscriberIndex.class, SubscriberIndexes.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                indexes.add(iterator.next());
+            } catch (ServiceConfigurationError e) {
+                logger.warn("load SubscriberIndex failed, fall back to reflection", e);
+            }
+        }
+        return indexes.build();
+    }
+
+}
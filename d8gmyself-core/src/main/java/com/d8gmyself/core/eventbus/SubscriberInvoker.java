@@ -0,0 +1,25 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 事件处理方法调用器
+ * <p>
+ * 每个订阅方法只生成一次，之后每次事件分发都是一次普通的接口调用，
+ * 订阅方法抛出的异常原样抛出，不会被包装成{@link java.lang.reflect.InvocationTargetException}。
+ * 一般由事件总线在运行时生成，也可以由编译期生成的{@link SubscriberIndex}直接提供
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+@FunctionalInterface
+public interface SubscriberInvoker {
+
+    /**
+     * 调用事件处理方法
+     *
+     * @param target 订阅者所在对象
+     * @param event  要处理的事件
+     * @throws Throwable 事件处理方法抛出的异常
+     */
+    void invoke(Object target, Object event) throws Throwable;
+
+}
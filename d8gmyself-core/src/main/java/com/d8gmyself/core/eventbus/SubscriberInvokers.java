@@ -0,0 +1,117 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * {@link SubscriberInvoker}生成
+ * <p>
+ * 按以下顺序尝试：
+ * <ol>
+ * <li>LambdaMetafactory：为public方法生成一个直接调用的实现类，可被JIT内联</li>
+ * <li>MethodHandle：非public方法或类加载器不可见时使用，免去反射的访问检查和参数装箱</li>
+ * <li>反射：以上两种方式都失败时兜底</li>
+ * </ol>
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class SubscriberInvokers {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriberInvokers.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private SubscriberInvokers() {
+    }
+
+    /**
+     * 为事件处理方法生成调用器
+     *
+     * @param method 事件处理方法
+     * @return 调用器
+     */
+    static SubscriberInvoker create(Method method) {
+        method.setAccessible(true);
+        if (canUseLambdaMetafactory(method)) {
+            try {
+                return createByLambdaMetafactory(method);
+            } catch (Throwable e) {
+                logger.debug("create invoker by LambdaMetafactory failed, method:{}", method, e);
+            }
+        }
+        try {
+            return createByMethodHandle(method);
+        } catch (Throwable e) {
+            logger.debug("create invoker by MethodHandle failed, method:{}", method, e);
+        }
+        return createByReflection(method);
+    }
+
+    private static boolean canUseLambdaMetafactory(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        Class<?> parameterType = method.getParameterTypes()[0];
+        return Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())
+                && Modifier.isPublic(declaringClass.getModifiers()) && isVisible(declaringClass)
+                && !parameterType.isPrimitive() && Modifier.isPublic(parameterType.getModifiers()) && isVisible(parameterType);
+    }
+
+    /**
+     * 生成的实现类由本类所在的类加载器解析，订阅者类型必须对其可见
+     */
+    private static boolean isVisible(Class<?> clazz) {
+        if (clazz.isArray()) {
+            return isVisible(clazz.getComponentType());
+        }
+        try {
+            return Class.forName(clazz.getName(), false, SubscriberInvokers.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static SubscriberInvoker createByLambdaMetafactory(Method method) throws Throwable {
+        MethodHandle implMethod = LOOKUP.unreflect(method);
+        MethodType instantiatedType = MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0]);
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "invoke", MethodType.methodType(SubscriberInvoker.class),
+                INVOKER_TYPE, implMethod, instantiatedType);
+        return (SubscriberInvoker) callSite.getTarget().invokeExact();
+    }
+
+    private static SubscriberInvoker createByMethodHandle(Method method) throws IllegalAccessException {
+        MethodHandle methodHandle = LOOKUP.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+        }
+        final MethodHandle handle = methodHandle.asType(INVOKER_TYPE);
+        // invokeExact的返回类型由调用点推断，必须写成语句形式才是void
+        return (target, event) -> {
+            handle.invokeExact(target, event);
+        };
+    }
+
+    private static SubscriberInvoker createByReflection(Method method) {
+        return (target, event) -> {
+            try {
+                method.invoke(target, event);
+            } catch (IllegalArgumentException e) {
+                throw new Error("Method rejected target/argument: " + event, e);
+            } catch (IllegalAccessException e) {
+                throw new Error("Method became inaccessible: " + event, e);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.d8gmyself.core.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步订阅者的限流，由{@link Subscribe#permitsPerSecond()}和{@link Subscribe#maxInFlight()}配置
+ * <p>
+ * 事件先进入无锁队列，同一时刻只有一个线程在放行：每放行一个事件需要令牌桶中的一个令牌（最多积攒1秒的令牌），
+ * 且正在执行的事件数不超过上限。令牌不足时由事件总线的定时线程在下一个令牌产生时继续放行，
+ * 执行数达到上限时由执行完成的线程继续放行；超出限制的事件只在队列中等待，不占用线程，也不会被拒绝。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class SubscriberLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriberLimiter.class);
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Subscriber subscriber;
+    private final EventBus bus;
+    /**
+     * 每个令牌的间隔，不限速时为0
+     */
+    private final double nanosPerPermit;
+    private final double maxPermits;
+    /**
+     * 小于等于0时不限制
+     */
+    private final int maxInFlight;
+    private final MpscLinkedQueue<Object> queue = new MpscLinkedQueue<>();
+    /**
+     * 正在执行的事件数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * 放行请求数，由0变为1的线程负责放行
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean timerScheduled = new AtomicBoolean();
+    /**
+     * 以下只在放行的线程中访问
+     */
+    private Object head;
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    private SubscriberLimiter(Subscriber subscriber, EventBus bus, double permitsPerSecond, int maxInFlight) {
+        this.subscriber = subscriber;
+        this.bus = bus;
+        this.nanosPerPermit = permitsPerSecond > 0 ? NANOS_PER_SECOND / permitsPerSecond : 0;
+        this.maxPermits = Math.max(1, permitsPerSecond);
+        this.maxInFlight = maxInFlight;
+        this.storedPermits = maxPermits;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * @return 未配置限流时为null
+     */
+    static SubscriberLimiter of(Subscriber subscriber, EventBus bus, Subscribe subscribe) {
+        if (subscribe.permitsPerSecond() <= 0 && subscribe.maxInFlight() <= 0) {
+            return null;
+        }
+        return new SubscriberLimiter(subscriber, bus, subscribe.permitsPerSecond(), subscribe.maxInFlight());
+    }
+
+    /**
+     * 校验限流配置
+     *
+     * @throws IllegalArgumentException 配置无效
+     */
+    static void check(Subscribe subscribe, Object method) {
+        if (subscribe.permitsPerSecond() < 0 || subscribe.maxInFlight() < 0) {
+            throw new IllegalArgumentException("permitsPerSecond和maxInFlight不能小于0: " + method);
+        }
+        if (subscribe.permitsPerSecond() > 0 || subscribe.maxInFlight() > 0) {
+            if (!subscribe.async()) {
+                throw new IllegalArgumentException("permitsPerSecond和maxInFlight只能用于异步Subscribe方法: " + method);
+            }
+            // 等待放行的事件不在信箱中，无法合并
+            if (!KeyExtractors.isNone(subscribe.conflationKey())) {
+                throw new IllegalArgumentException("permitsPerSecond和maxInFlight不能用于配置了conflationKey的Subscribe方法: " + method);
+            }
+        }
+    }
+
+    /**
+     * 投递事件，可由任意线程调用
+     *
+     * @param payload 标记为{@link QueuedEvent#isLimited() 限流}的事件
+     */
+    void offer(QueuedEvent payload) {
+        queue.offer(payload);
+        drain();
+    }
+
+    /**
+     * 放行的事件执行完成（包括失败）时调用
+     */
+    void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (true) {
+                if (head == null && (head = queue.poll()) == null) {
+                    break;
+                }
+                if (maxInFlight > 0 && inFlight.get() >= maxInFlight) {
+                    break;
+                }
+                long waitNanos = tryAcquirePermit();
+                if (waitNanos > 0) {
+                    scheduleDrain(waitNanos);
+                    break;
+                }
+                Object payload = head;
+                head = null;
+                inFlight.incrementAndGet();
+                try {
+                    subscriber.enqueueLimited(payload);
+                } catch (RuntimeException e) {
+                    // 线程池拒绝，完成回调已由订阅者处理
+                    inFlight.decrementAndGet();
+                    logger.error("subscriber {} rejected limited event: {}", subscriber.getMethod(), QueuedEvent.unwrap(payload), e);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * @return 获取到令牌时返回0，否则返回下一个令牌产生前需要等待的纳秒数
+     */
+    private long tryAcquirePermit() {
+        if (nanosPerPermit == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) / nanosPerPermit);
+        lastRefillNanos = now;
+        if (storedPermits >= 1) {
+            storedPermits -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - storedPermits) * nanosPerPermit));
+    }
+
+    private void scheduleDrain(long delayNanos) {
+        if (!timerScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            bus.scheduler().schedule(() -> {
+                timerScheduled.set(false);
+                drain();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            timerScheduled.set(false);
+            logger.warn("event bus is shut down, limited events of subscriber {} are not delivered", subscriber.getMethod());
+        }
+    }
+
+}
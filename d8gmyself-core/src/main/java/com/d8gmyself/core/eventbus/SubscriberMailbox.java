@@ -0,0 +1,94 @@
+package com.d8gmyself.core.eventbus;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订阅者信箱，用于{@code allowConcurrency = false}的异步订阅者，以及分区订阅者的每个分区
+ * <p>
+ * 事件先进入无锁信箱，只有信箱由空变为非空时才把信箱提交到线程池，
+ * 线程池中同一时刻最多只有一个线程在批量处理该信箱，因此无需加锁也能保证串行执行，
+ * 线程池中的线程不会因为等待其他线程处理同一订阅者而阻塞。
+ * 单次最多连续处理{@link #BATCH_SIZE}个事件，超过后重新提交，避免一个订阅者长期占用线程。
+ * 线程池拒绝时由当前线程继续处理，不会递归调用{@link #run()}。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+class SubscriberMailbox implements Runnable {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final Subscriber subscriber;
+    private final MpscLinkedQueue<Object> queue = new MpscLinkedQueue<>();
+    /**
+     * 已入队但未处理的事件数，由0变为1的线程负责提交信箱
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    SubscriberMailbox(Subscriber subscriber) {
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * 投递事件
+     *
+     * @param event 事件
+     */
+    void offer(Object event) {
+        queue.offer(event);
+        if (pending.getAndIncrement() == 0 && !schedule()) {
+            // 线程池拒绝时由发布线程处理，避免信箱永远无人处理
+            run();
+        }
+    }
+
+    /**
+     * 出队，只在处理信箱的线程中调用
+     */
+    Object take() {
+        Object event;
+        // 计数已包含该事件，说明生产者已完成入队，最多只需等待其完成next链接
+        while ((event = queue.poll()) == null) {
+            Thread.yield();
+        }
+        return event;
+    }
+
+    @Override
+    public void run() {
+        int missed = pending.get();
+        int processed = 0;
+        while (true) {
+            for (int i = 0; i < missed; i++) {
+                subscriber.invokeSubscriberMethodSerially(take());
+            }
+            processed += missed;
+            missed = pending.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+            if (processed >= BATCH_SIZE) {
+                if (schedule()) {
+                    return;
+                }
+                // 线程池拒绝时在当前线程继续处理
+                processed = 0;
+            }
+        }
+    }
+
+    /**
+     * @return 是否已提交到线程池，被拒绝时返回false，由调用方继续处理
+     */
+    private boolean schedule() {
+        try {
+            // 每次提交时读取订阅者当前的线程池，订阅者被隔离后信箱随之迁移
+            subscriber.executor().execute(this);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+}
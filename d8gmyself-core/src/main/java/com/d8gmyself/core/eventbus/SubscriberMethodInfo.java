@@ -0,0 +1,37 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * {@link SubscriberIndex}中的订阅方法信息
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class SubscriberMethodInfo {
+
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
+    private final SubscriberInvoker invoker;
+
+    /**
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型
+     * @param invoker        编译期生成的调用器，方法不可直接访问时为null，由事件总线在运行时生成
+     */
+    public SubscriberMethodInfo(String methodName, Class<?>[] parameterTypes, SubscriberInvoker invoker) {
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+        this.invoker = invoker;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    public SubscriberInvoker getInvoker() {
+        return invoker;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.d8gmyself.core.eventbus;
+
+import com.d8gmyself.concurrency.metrics.HistogramSnapshot;
+import com.d8gmyself.concurrency.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个事件处理方法的统计，同一方法注册在多个对象上时合并统计
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class SubscriberMetrics {
+
+    private final String name;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    SubscriberMetrics(String name) {
+        this.name = name;
+    }
+
+    void recordInvocation(long latencyNanos, boolean error) {
+        invocations.increment();
+        if (error) {
+            errors.increment();
+        }
+        latency.record(latencyNanos);
+    }
+
+    void recordQueueWait(long waitNanos) {
+        queueWait.record(waitNanos);
+    }
+
+    /**
+     * @return 事件处理方法，格式为{@code 类名#方法名(参数类型)}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 调用次数
+     */
+    public long getInvocationCount() {
+        return invocations.sum();
+    }
+
+    /**
+     * @return 抛出异常的次数
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return 处理耗时
+     */
+    public HistogramSnapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    /**
+     * @return 异步处理时，事件从提交到开始处理的等待时间
+     */
+    public HistogramSnapshot getQueueWait() {
+        return queueWait.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriberMetrics{" +
+                "name='" + name + '\'' +
+                ", invocations=" + getInvocationCount() +
+                ", errors=" + getErrorCount() +
+                ", latency=" + getLatency() +
+                ", queueWait=" + getQueueWait() +
+                '}';
+    }
+}
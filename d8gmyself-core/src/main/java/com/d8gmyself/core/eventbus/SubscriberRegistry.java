@@ -1,7 +1,7 @@
 package com.d8gmyself.core.eventbus;
 
-import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -9,10 +9,18 @@ import com.google.common.collect.*;
 import com.google.common.reflect.TypeToken;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * 订阅者注册管理
  *
@@ -22,9 +30,35 @@ class SubscriberRegistry {
 
     private EventBus bus;
     /**
-     * 事件类型-处理方式映射
+     * 事件类型-处理方式映射，有序集合增删均为O(log n)，持有{@link #lock}时访问
+     */
+    private final Map<Class<?>, NavigableSet<Subscriber>> subscribers = Maps.newHashMap();
+    /**
+     * 订阅者对象-订阅关系映射，weakKeys按==比较，不依赖订阅者对象的equals
+     */
+    private final Map<Object, Subscription> registrations = new MapMaker().weakKeys().makeMap();
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * 注册、取消订阅和构建分发计划互斥，发布事件只读取不可变的分发计划
+     */
+    private final Object lock = new Object();
+    /**
+     * 具体事件类型-分发计划映射，订阅关系变化时在受影响的计划中插入或移除单个订阅者，替换为新计划
      */
-    private final Map<Class<?>, Set<Subscriber>> subscribers = Maps.newConcurrentMap();
+    private final Cache<Class<?>, DispatchPlan> dispatchPlanCache = CacheBuilder.newBuilder().weakKeys().build();
+    /**
+     * 事件类型-父类型（含自身）包含该类型、且已缓存分发计划的具体事件类型，订阅关系变化时据此找到受影响的计划，
+     * 不需要遍历所有缓存的计划；均为弱引用，持有{@link #lock}时访问
+     */
+    private final Map<Class<?>, Set<Class<?>>> planDependents = new MapMaker().weakKeys().makeMap();
+    /**
+     * 配置了主题的订阅者，持有{@link #lock}时修改，发布时不加锁匹配
+     */
+    private final TopicTrie topicTrie = new TopicTrie();
+    /**
+     * 粘性事件的具体类型-保留的事件，首次构建该类型的分发计划时创建
+     */
+    private final Map<Class<?>, StickyEventRing> stickyRings = new ConcurrentHashMap<>();
     private final LoadingCache<Class<?>, List<Method>> classMethodsCache = CacheBuilder.newBuilder().weakKeys()
             .build(new CacheLoader<Class<?>, List<Method>>() {
                 @Override
@@ -39,6 +73,13 @@ class SubscriberRegistry {
                     return findAllMethodAnnotatedSubscribeNotCached(key);
                 }
             });
+    private final LoadingCache<Method, SubscriberInvoker> invokerCache = CacheBuilder.newBuilder().weakKeys()
+            .build(new CacheLoader<Method, SubscriberInvoker>() {
+                @Override
+                public SubscriberInvoker load(Method key) {
+                    return SubscriberInvokers.create(key);
+                }
+            });
     private final LoadingCache<Class<?>, Set<Class<?>>> flattenHierarchyCache = CacheBuilder.newBuilder().weakKeys()
             .build(new CacheLoader<Class<?>, Set<Class<?>>>() {
                 @Override
@@ -52,67 +93,281 @@ class SubscriberRegistry {
         this.bus = bus;
     }
 
-    @SuppressWarnings("unchecked")
-    Iterator<Subscriber> getSubscribers(Object event) {
-        Set<Class<?>> eventTypes = flattenHierarchyCache.getUnchecked(event.getClass());
-        List<Iterator<Subscriber>> subscriberIterators = Lists.newArrayListWithCapacity(eventTypes.size());
-        for (Class eventType : eventTypes) {
-            Set<Subscriber> eventSubscribers = subscribers.get(eventType);
-            if (eventSubscribers != null) {
-                subscriberIterators.add(eventSubscribers.iterator());
+    /**
+     * 获取事件类型的分发计划，订阅者已按{@link Subscribe#order()}排序
+     * <p>
+     * 同一具体事件类型的分发计划只在订阅关系变化后重新构建一次，其余情况直接返回缓存的计划
+     * </p>
+     *
+     * @param eventClass 事件的具体类型
+     * @return 分发计划
+     */
+    DispatchPlan getDispatchPlan(Class<?> eventClass) {
+        DispatchPlan plan = dispatchPlanCache.getIfPresent(eventClass);
+        if (plan == null) {
+            // 与订阅关系变化互斥，避免把变化前构建的计划放回缓存
+            synchronized (lock) {
+                plan = dispatchPlanCache.getIfPresent(eventClass);
+                if (plan == null) {
+                    plan = buildDispatchPlan(eventClass);
+                    dispatchPlanCache.put(eventClass, plan);
+                    for (Class<?> eventType : flattenHierarchyCache.getUnchecked(eventClass)) {
+                        planDependents.computeIfAbsent(eventType, key -> Collections.newSetFromMap(new MapMaker().weakKeys().makeMap()))
+                                .add(eventClass);
+                    }
+                }
             }
         }
-        return Iterators.concat(subscriberIterators.iterator());
+        return plan;
+    }
+
+    /**
+     * 获取按主题发布的事件的分发计划，包括不按主题过滤的订阅者和订阅了匹配主题的订阅者
+     * <p>
+     * 主题的取值可能很多，不缓存按主题的计划，每次在前缀树中不加锁匹配后与事件类型的计划合并，
+     * 耗时与主题层级和匹配到的订阅者数有关
+     * </p>
+     *
+     * @param eventClass 事件的具体类型
+     * @param topic      发布的主题，为null时同{@link #getDispatchPlan(Class)}
+     * @return 分发计划
+     */
+    DispatchPlan getDispatchPlan(Class<?> eventClass, String topic) {
+        if (topic == null) {
+            return getDispatchPlan(eventClass);
+        }
+        DispatchPlan plan = getDispatchPlan(eventClass);
+        long trieVersion = topicTrie.version();
+        List<Subscriber> matched = Lists.newArrayListWithCapacity(4);
+        topicTrie.match(topic, eventClass, matched);
+        return plan.forTopic(topic, matched, topicTrie, trieVersion);
+    }
+
+    private DispatchPlan buildDispatchPlan(Class<?> eventClass) {
+        List<Subscriber> eventSubscribers = Lists.newArrayList();
+        for (Class<?> eventType : flattenHierarchyCache.getUnchecked(eventClass)) {
+            Set<Subscriber> typeSubscribers = subscribers.get(eventType);
+            if (typeSubscribers != null) {
+                eventSubscribers.addAll(typeSubscribers);
+            }
+        }
+        StickyEventRing stickyRing = stickyRings.get(eventClass);
+        if (stickyRing == null && (stickyRing = StickyEventRing.of(eventClass)) != null) {
+            stickyRings.put(eventClass, stickyRing);
+        }
+        if (eventSubscribers.isEmpty()) {
+            return DispatchPlan.empty(null, stickyRing);
+        }
+        Subscriber[] result = eventSubscribers.toArray(new Subscriber[0]);
+        Arrays.sort(result, DispatchPlan.ORDER);
+        return new DispatchPlan(result, null, stickyRing);
     }
 
-    void register(Object listener) {
-        Map<Class<?>, Set<Subscriber>> listenerMethods = findAllSubscribers(listener);
-        for (Map.Entry<Class<?>, Set<Subscriber>> entry : listenerMethods.entrySet()) {
-            Class<?> eventType = entry.getKey();
-            Set<Subscriber> eventMethodsInListener = entry.getValue();
-            Set<Subscriber> eventSubscribers = subscribers.get(eventType);
-            if (eventSubscribers == null) {
-                Set<Subscriber> newSet = new CopyOnWriteArraySet<>();
-                eventSubscribers = MoreObjects.firstNonNull(subscribers.putIfAbsent(eventType, newSet), newSet);
+    /**
+     * 注册订阅者，同一对象重复注册时返回已有的订阅关系
+     */
+    Subscription register(Object listener) {
+        Subscription existing = registrations.get(listener);
+        if (existing != null) {
+            return existing;
+        }
+        // 在锁外扫描方法、创建订阅者
+        return register(createSubscription(listener));
+    }
+
+    /**
+     * 把一个订阅方法按指定的事件类型分别注册为订阅者，用于事件类型在运行时才确定的内部订阅者，
+     * 方法参数需为这些事件类型的父类型；同一对象重复注册时返回已有的订阅关系
+     */
+    Subscription register(Object listener, Method method, Class<?>[] eventTypes) {
+        Subscription existing = registrations.get(listener);
+        if (existing != null) {
+            return existing;
+        }
+        Subscribe subscribe = checkNotNull(method.getAnnotation(Subscribe.class), "方法未标注@Subscribe: %s", method);
+        checkArgument(method.getParameterTypes().length == 1 && !isBatchMethod(method), "方法必须只有一个事件参数: %s", method);
+        if (bus.dispatcherRunsAsyncSubscribers()) {
+            checkDispatcherThreadSubscribe(subscribe, method);
+        }
+        SubscriberInvoker invoker = invokerCache.getUnchecked(method);
+        Subscriber[] listenerSubscribers = new Subscriber[eventTypes.length];
+        for (int i = 0; i < eventTypes.length; i++) {
+            checkArgument(method.getParameterTypes()[0].isAssignableFrom(eventTypes[i]), "方法%s不能接收事件类型%s", method, eventTypes[i]);
+            listenerSubscribers[i] = new Subscriber(bus, method, invoker, listener, subscribe, false,
+                    bus.getExecutor(), sequence.getAndIncrement());
+        }
+        return register(new Subscription(this, listener, eventTypes.clone(), listenerSubscribers));
+    }
+
+    private Subscription register(Subscription subscription) {
+        Object listener = subscription.getListener();
+        Subscription existing;
+        List<StickyReplay> replays = null;
+        synchronized (lock) {
+            existing = registrations.putIfAbsent(listener, subscription);
+            if (existing != null) {
+                return existing;
+            }
+            Class<?>[] eventTypes = subscription.getEventTypes();
+            Subscriber[] listenerSubscribers = subscription.getSubscribers();
+            if (!stickyRings.isEmpty()) {
+                // 订阅者对分发可见之前装上回放缓冲
+                replays = prepareStickyReplays(eventTypes, listenerSubscribers);
+            }
+            for (int i = 0; i < listenerSubscribers.length; i++) {
+                Subscriber subscriber = listenerSubscribers[i];
+                if (subscriber.getTopic() != null) {
+                    topicTrie.add(subscriber.getTopic(), eventTypes[i], subscriber);
+                } else {
+                    subscribers.computeIfAbsent(eventTypes[i], key -> new TreeSet<>(DispatchPlan.ORDER)).add(subscriber);
+                    updateDispatchPlans(eventTypes[i], plan -> plan.withSubscriber(subscriber));
+                }
+            }
+            if (replays != null) {
+                // 分发计划标记为过期之后读取保留的事件，之后保留的事件会按新的分发计划实时分发
+                snapshotStickyEvents(replays);
+            }
+        }
+        if (replays != null) {
+            for (StickyReplay replay : replays) {
+                replay.replay();
+            }
+        }
+        return subscription;
+    }
+
+    private List<StickyReplay> prepareStickyReplays(Class<?>[] eventTypes, Subscriber[] listenerSubscribers) {
+        List<StickyReplay> replays = Lists.newArrayList();
+        for (int i = 0; i < listenerSubscribers.length; i++) {
+            for (Class<?> stickyClass : stickyRings.keySet()) {
+                if (eventTypes[i].isAssignableFrom(stickyClass)) {
+                    StickyReplay replay = new StickyReplay(listenerSubscribers[i], eventTypes[i]);
+                    listenerSubscribers[i].beginReplay(replay);
+                    replays.add(replay);
+                    break;
+                }
+            }
+        }
+        return replays;
+    }
+
+    private void snapshotStickyEvents(List<StickyReplay> replays) {
+        List<StickyEventRing.Entry> entries = Lists.newArrayList();
+        for (StickyReplay replay : replays) {
+            Subscriber subscriber = replay.getSubscriber();
+            Class<?> eventType = replay.getEventType();
+            for (StickyEventRing ring : stickyRings.values()) {
+                if (!eventType.isAssignableFrom(ring.getEventClass())) {
+                    continue;
+                }
+                entries.clear();
+                ring.snapshot(entries);
+                for (StickyEventRing.Entry entry : entries) {
+                    if (subscriber.getTopic() == null
+                            || (entry.getTopic() != null && TopicTrie.matches(subscriber.getTopic(), entry.getTopic()))) {
+                        replay.add(entry.getEvent());
+                    }
+                }
             }
-            eventSubscribers.addAll(eventMethodsInListener);
         }
     }
 
     void unregister(Object listener) {
-        Map<Class<?>, Set<Subscriber>> listenerMethods = findAllSubscribers(listener);
+        Subscription subscription = registrations.get(listener);
+        if (subscription == null || !unregister(subscription)) {
+            throw new IllegalArgumentException(
+                    "missing event subscriber for an annotated method. Is " + listener + " registered?");
+        }
+    }
 
-        for (Map.Entry<Class<?>, Set<Subscriber>> entry : listenerMethods.entrySet()) {
-            Class<?> eventType = entry.getKey();
-            Set<Subscriber> listenerMethodsForType = entry.getValue();
-            Set<Subscriber> currentSubscribers = subscribers.get(eventType);
-            if (currentSubscribers == null || !currentSubscribers.removeAll(listenerMethodsForType)) {
-                // if removeAll returns true, all we really know is that at least one subscriber was
-                // removed... however, barring something very strange we can assume that if at least one
-                // subscriber was removed, all subscribers on listener for that event type were... after
-                // all, the definition of subscribers on a particular class is totally static
-                throw new IllegalArgumentException(
-                        "missing event subscriber for an annotated method. Is " + listener + " registered?");
+    /**
+     * 按注册时的记录移除订阅者
+     *
+     * @return 已取消过时返回false
+     */
+    boolean unregister(Subscription subscription) {
+        synchronized (lock) {
+            if (!registrations.remove(subscription.getListener(), subscription)) {
+                return false;
+            }
+            subscription.deactivate();
+            Class<?>[] eventTypes = subscription.getEventTypes();
+            Subscriber[] listenerSubscribers = subscription.getSubscribers();
+            for (int i = 0; i < listenerSubscribers.length; i++) {
+                Subscriber subscriber = listenerSubscribers[i];
+                subscriber.deactivate();
+                if (subscriber.getTopic() != null) {
+                    topicTrie.remove(subscriber.getTopic(), subscriber);
+                    continue;
+                }
+                NavigableSet<Subscriber> typeSubscribers = subscribers.get(eventTypes[i]);
+                typeSubscribers.remove(subscriber);
+                if (typeSubscribers.isEmpty()) {
+                    subscribers.remove(eventTypes[i]);
+                }
+                updateDispatchPlans(eventTypes[i], plan -> plan.withoutSubscriber(subscriber));
             }
-            // don't try to remove the set if it's empty; that can't be done safely without a lock
-            // anyway, if the set is empty it'll just be wrapping an array of length 0
         }
+        return true;
     }
 
-    private Map<Class<?>, Set<Subscriber>> findAllSubscribers(Object listener) {
-        Map<Class<?>, Set<Subscriber>> allSubscribers = Maps.newHashMap();
+    /**
+     * 替换父类型（含自身）中包含{@code changedType}的事件类型的分发计划，旧计划标记为过期，持有{@link #lock}时调用
+     */
+    private void updateDispatchPlans(Class<?> changedType, UnaryOperator<DispatchPlan> update) {
+        Set<Class<?>> dependents = planDependents.get(changedType);
+        if (dependents == null) {
+            return;
+        }
+        for (Class<?> eventClass : dependents) {
+            DispatchPlan plan = dispatchPlanCache.getIfPresent(eventClass);
+            if (plan != null) {
+                dispatchPlanCache.put(eventClass, update.apply(plan));
+                plan.markStale();
+            }
+        }
+    }
+
+    private Subscription createSubscription(Object listener) {
         List<Method> annotatedMethods = findAnnotatedMethods(listener);
-        for (Method method : annotatedMethods) {
-            Class<?> eventType = method.getParameterTypes()[0];
+        Class<?>[] eventTypes = new Class<?>[annotatedMethods.size()];
+        Subscriber[] listenerSubscribers = new Subscriber[annotatedMethods.size()];
+        for (int i = 0; i < annotatedMethods.size(); i++) {
+            Method method = annotatedMethods.get(i);
+            boolean batch = isBatchMethod(method);
+            eventTypes[i] = batch ? getBatchEventType(method) : method.getParameterTypes()[0];
             Subscribe subscribe = method.getAnnotation(Subscribe.class);
-            Subscriber subscriber = new Subscriber(bus, method, listener, subscribe.order(), subscribe.allowConcurrency(), subscribe.async(), bus.getExecutor());
-            if (allSubscribers.containsKey(eventType)) {
-                allSubscribers.get(eventType).add(subscriber);
-            } else {
-                allSubscribers.put(eventType, Sets.newHashSet(subscriber));
+            if (bus.dispatcherRunsAsyncSubscribers()) {
+                checkDispatcherThreadSubscribe(subscribe, method);
             }
+            listenerSubscribers[i] = new Subscriber(bus, method, invokerCache.getUnchecked(method), listener, subscribe, batch,
+                    bus.getExecutor(), sequence.getAndIncrement());
         }
-        return allSubscribers;
+        return new Subscription(this, listener, eventTypes, listenerSubscribers);
+    }
+
+    /**
+     * 参数为{@code List<事件类型>}的方法为批量订阅方法
+     */
+    private static boolean isBatchMethod(Method method) {
+        return method.getParameterTypes()[0] == List.class;
+    }
+
+    private static Class<?> getBatchEventType(Method method) {
+        Type parameterType = method.getGenericParameterTypes()[0];
+        if (parameterType instanceof ParameterizedType) {
+            Type elementType = ((ParameterizedType) parameterType).getActualTypeArguments()[0];
+            if (elementType instanceof WildcardType) {
+                elementType = ((WildcardType) elementType).getUpperBounds()[0];
+            }
+            if (elementType instanceof Class) {
+                return (Class<?>) elementType;
+            }
+            if (elementType instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) elementType).getRawType();
+            }
+        }
+        throw new IllegalArgumentException("批量Subscribe方法的参数必须声明为List<具体事件类型>: " + method);
     }
 
     private List<Method> findAnnotatedMethods(Object object) {
@@ -120,23 +375,111 @@ class SubscriberRegistry {
     }
 
     private List<Method> findAllMethodAnnotatedSubscribeNotCached(Class<?> clazz) {
-        TypeToken<?> typeToken = TypeToken.of(clazz);
-        Set<? extends Class<?>> supertypes = typeToken.getTypes().rawTypes();
         Set<MethodIdentifier> identifiers = Sets.newHashSet();
-        for (Class<?> clzz : supertypes) {
-            List<Method> methods = classMethodsCache.getUnchecked(clzz);
-            methods.stream().filter(method -> method.isAnnotationPresent(Subscribe.class) && !method.isSynthetic())
+        for (Class<?> clzz : supertypes(clazz)) {
+            findDeclaredMethodsAnnotatedSubscribe(clzz).stream()
                     .map(MethodIdentifier::new).filter(methodIdentifier -> !identifiers.contains(methodIdentifier))
                     .forEach(methodIdentifier -> {
-                        if (methodIdentifier.source.getParameterCount() != 1) {
-                            throw new IllegalArgumentException("Subscribe方法只能有一个参数，该参数为要处理的事件类型");
-                        }
+                        checkSubscribeMethod(methodIdentifier.source);
                         identifiers.add(methodIdentifier);
                     });
         }
         return ImmutableList.copyOf(identifiers.stream().map(MethodIdentifier::source).collect(Collectors.toList()));
     }
 
+    /**
+     * 类本身、所有父类及所有接口，子类在前
+     */
+    private static Set<Class<?>> supertypes(Class<?> clazz) {
+        Set<Class<?>> types = Sets.newLinkedHashSet();
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            types.add(current);
+        }
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            collectInterfaces(current, types);
+        }
+        return types;
+    }
+
+    private static void collectInterfaces(Class<?> clazz, Set<Class<?>> types) {
+        for (Class<?> interfaceType : clazz.getInterfaces()) {
+            if (types.add(interfaceType)) {
+                collectInterfaces(interfaceType, types);
+            }
+        }
+    }
+
+    /**
+     * 查找类中直接声明的订阅方法，优先使用编译期生成的{@link SubscriberIndex}，未被索引的类通过反射扫描；
+     * JDK中的类型不会声明订阅方法，直接跳过
+     */
+    private List<Method> findDeclaredMethodsAnnotatedSubscribe(Class<?> clazz) {
+        if (isPlatformType(clazz)) {
+            return Collections.emptyList();
+        }
+        SubscriberMethodInfo[] indexedMethods = SubscriberIndexes.find(clazz);
+        if (indexedMethods == null) {
+            return classMethodsCache.getUnchecked(clazz).stream()
+                    .filter(method -> method.isAnnotationPresent(Subscribe.class) && !method.isSynthetic())
+                    .collect(Collectors.toList());
+        }
+        List<Method> methods = Lists.newArrayListWithCapacity(indexedMethods.length);
+        for (SubscriberMethodInfo methodInfo : indexedMethods) {
+            Method method;
+            try {
+                method = clazz.getDeclaredMethod(methodInfo.getMethodName(), methodInfo.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("SubscriberIndex与" + clazz.getName() + "不一致，请重新编译", e);
+            }
+            if (methodInfo.getInvoker() != null) {
+                invokerCache.asMap().putIfAbsent(method, methodInfo.getInvoker());
+            }
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    private static boolean isPlatformType(Class<?> clazz) {
+        String name = clazz.getName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    private static void checkSubscribeMethod(Method method) {
+        if (method.getParameterCount() != 1) {
+            throw new IllegalArgumentException("Subscribe方法只能有一个参数，该参数为要处理的事件类型或List<事件类型>");
+        }
+        Subscribe subscribe = method.getAnnotation(Subscribe.class);
+        boolean batch = isBatchMethod(method);
+        if (batch) {
+            getBatchEventType(method);
+            if (subscribe.batchSize() <= 0 || subscribe.lingerMillis() <= 0) {
+                throw new IllegalArgumentException("批量Subscribe方法的batchSize和lingerMillis必须大于0: " + method);
+            }
+        }
+        if (!KeyExtractors.isNone(subscribe.partitionKey()) && (batch || !subscribe.allowConcurrency())) {
+            throw new IllegalArgumentException("partitionKey不能用于批量或allowConcurrency = false的Subscribe方法: " + method);
+        }
+        if (!KeyExtractors.isNone(subscribe.conflationKey()) && (batch || !KeyExtractors.isNone(subscribe.partitionKey()))) {
+            throw new IllegalArgumentException("conflationKey不能用于批量或配置了partitionKey的Subscribe方法: " + method);
+        }
+        if (!subscribe.topic().isEmpty()) {
+            TopicTrie.checkPattern(subscribe.topic());
+        }
+        RetryPolicy.check(subscribe, method);
+        SubscriberLimiter.check(subscribe, method);
+    }
+
+    /**
+     * 环形队列、日志和分片模式下异步订阅者直接在分发器线程中执行，不经过分区、合并信箱和限流，不能使用这些配置
+     */
+    private static void checkDispatcherThreadSubscribe(Subscribe subscribe, Method method) {
+        if (!KeyExtractors.isNone(subscribe.partitionKey()) || !KeyExtractors.isNone(subscribe.conflationKey())
+                || subscribe.permitsPerSecond() > 0 || subscribe.maxInFlight() > 0) {
+            throw new IllegalArgumentException(
+                    "环形队列、日志和分片模式不支持partitionKey、conflationKey、permitsPerSecond和maxInFlight: " + method);
+        }
+    }
+
     private static final class MethodIdentifier {
         private final String name;
         private final List<Class<?>> parameterTypes;
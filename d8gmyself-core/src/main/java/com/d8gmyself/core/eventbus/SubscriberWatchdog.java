@@ -0,0 +1,255 @@
+package com.d8gmyself.core.eventbus;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 慢订阅者看门狗
+ * <p>
+ * 记录正在执行的订阅者调用，由事件总线的定时线程定期检查，单次执行超过耗时预算时，
+ * 采样执行线程的调用栈交给{@link SlowSubscriberHandler}；开启隔离时，把该异步订阅者之后的事件迁移到它独占的线程池，
+ * 避免一个卡住的订阅者占满共享线程池。已在执行的调用无法迁移，隔离后不再迁回。
+ * </p>
+ * <p>
+ * 每个线程有自己的执行记录，开始和结束执行时只写本线程的记录，不分配对象，也不与其他线程竞争；
+ * 线程首次执行订阅者时登记一次，线程结束后由定时线程移除。订阅者中同步发布事件形成嵌套调用时，只检查最内层的调用。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class SubscriberWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriberWatchdog.class);
+
+    private static final long MIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int ISOLATED_POOL_SIZE = 4;
+    private static final long ISOLATED_KEEP_ALIVE_SECONDS = 60;
+
+    private final long budgetNanos;
+    private final boolean isolate;
+    private final SlowSubscriberHandler handler;
+    private final Set<Slot> slots = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Slot> currentSlot = ThreadLocal.withInitial(this::registerSlot);
+    private final List<ExecutorService> isolatedExecutors = new CopyOnWriteArrayList<>();
+    private EventBus bus;
+    private ScheduledFuture<?> checkTask;
+
+    /**
+     * @param budgetMillis 单次执行的耗时预算（毫秒）
+     * @param isolate      是否把超时的异步订阅者迁移到独立线程池
+     * @param handler      慢订阅者处理，为null时记录日志
+     */
+    SubscriberWatchdog(long budgetMillis, boolean isolate, SlowSubscriberHandler handler) {
+        checkArgument(budgetMillis > 0, "latencyBudgetMillis必须大于0");
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.isolate = isolate;
+        this.handler = handler == null ? new LoggingSlowSubscriberHandler() : handler;
+    }
+
+    void start(EventBus bus) {
+        this.bus = bus;
+        long interval = Math.max(budgetNanos / 2, MIN_CHECK_INTERVAL_NANOS);
+        this.checkTask = bus.scheduler().scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 订阅者开始执行时调用
+     *
+     * @return 当前线程的执行记录，结束时交给{@link #end(Slot)}
+     */
+    Slot begin(Subscriber subscriber, Object event) {
+        Slot slot = currentSlot.get();
+        slot.push(subscriber, event, System.nanoTime());
+        return slot;
+    }
+
+    void end(Slot slot) {
+        slot.pop();
+    }
+
+    private Slot registerSlot() {
+        Slot slot = new Slot(Thread.currentThread());
+        slots.add(slot);
+        return slot;
+    }
+
+    void shutdown() {
+        if (checkTask != null) {
+            checkTask.cancel(false);
+        }
+        for (ExecutorService executor : isolatedExecutors) {
+            executor.shutdown();
+        }
+    }
+
+    private void check() {
+        long now = System.nanoTime();
+        for (Slot slot : slots) {
+            if (!slot.thread.isAlive()) {
+                slots.remove(slot);
+                continue;
+            }
+            long version = slot.version;
+            if ((version & 1) != 0) {
+                // 正在更新，下次检查
+                continue;
+            }
+            Subscriber subscriber = slot.subscriber;
+            Object event = slot.event;
+            long startNanos = slot.startNanos;
+            if (subscriber == null || slot.version != version) {
+                continue;
+            }
+            long elapsedNanos = now - startNanos;
+            if (elapsedNanos < budgetNanos || (slot.reportedSubscriber == subscriber && slot.reportedStartNanos == startNanos)) {
+                continue;
+            }
+            slot.reportedSubscriber = subscriber;
+            slot.reportedStartNanos = startNanos;
+            try {
+                StackTraceElement[] stackTrace = slot.thread.getStackTrace();
+                boolean isolated = subscriber.isIsolated() || (isolate && isolate(subscriber));
+                handler.handleSlowSubscriber(subscriber.getTarget(), subscriber.getMethod(), event,
+                        TimeUnit.NANOSECONDS.toMillis(elapsedNanos), stackTrace, isolated);
+            } catch (Throwable e) {
+                // 定时任务抛出异常后不会再执行
+                logger.error("slow subscriber check error, subscriber:{}", subscriber.getMethod(), e);
+            }
+        }
+    }
+
+    private boolean isolate(Subscriber subscriber) {
+        if (!subscriber.canIsolate()) {
+            return false;
+        }
+        Method method = subscriber.getMethod();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(ISOLATED_POOL_SIZE, ISOLATED_POOL_SIZE,
+                ISOLATED_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("EventBus-" + bus.identifier() + "-isolated-"
+                        + method.getDeclaringClass().getSimpleName() + "." + method.getName() + "-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        if (!subscriber.isolate(executor)) {
+            executor.shutdown();
+            return subscriber.isIsolated();
+        }
+        isolatedExecutors.add(executor);
+        logger.warn("subscriber {} exceeded latency budget, isolated to its own executor", method);
+        return true;
+    }
+
+    /**
+     * 一个线程的执行记录
+     * <p>
+     * 嵌套调用保存在只由所属线程访问的栈中，最内层的调用按顺序锁（seqlock）方式发布给定时线程：
+     * 更新前后各把{@link #version}加1，定时线程读到相同的偶数版本才使用读到的调用
+     * </p>
+     */
+    static final class Slot {
+
+        private static final int INITIAL_DEPTH = 4;
+        private static final AtomicLongFieldUpdater<Slot> VERSION_UPDATER =
+                AtomicLongFieldUpdater.newUpdater(Slot.class, "version");
+        private static final AtomicReferenceFieldUpdater<Slot, Subscriber> SUBSCRIBER_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(Slot.class, Subscriber.class, "subscriber");
+        private static final AtomicReferenceFieldUpdater<Slot, Object> EVENT_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(Slot.class, Object.class, "event");
+        private static final AtomicLongFieldUpdater<Slot> START_NANOS_UPDATER =
+                AtomicLongFieldUpdater.newUpdater(Slot.class, "startNanos");
+
+        private final Thread thread;
+        /**
+         * 嵌套调用栈，只由所属线程访问
+         */
+        private Subscriber[] subscriberStack = new Subscriber[INITIAL_DEPTH];
+        private Object[] eventStack = new Object[INITIAL_DEPTH];
+        private long[] startNanosStack = new long[INITIAL_DEPTH];
+        private int depth;
+        /**
+         * 发布的最内层调用，没有正在执行的调用时{@link #subscriber}为null；
+         * 只由所属线程有序写入（lazySet），写入之间不需要额外的屏障
+         */
+        private volatile long version;
+        private volatile Subscriber subscriber;
+        private volatile Object event;
+        private volatile long startNanos;
+        /**
+         * 最近一次报告的调用，只在定时线程中访问
+         */
+        private Subscriber reportedSubscriber;
+        private long reportedStartNanos;
+
+        private Slot(Thread thread) {
+            this.thread = thread;
+        }
+
+        private void push(Subscriber subscriber, Object event, long startNanos) {
+            if (depth == subscriberStack.length) {
+                int newLength = depth * 2;
+                subscriberStack = Arrays.copyOf(subscriberStack, newLength);
+                eventStack = Arrays.copyOf(eventStack, newLength);
+                startNanosStack = Arrays.copyOf(startNanosStack, newLength);
+            }
+            subscriberStack[depth] = subscriber;
+            eventStack[depth] = event;
+            startNanosStack[depth] = startNanos;
+            depth++;
+            publish(subscriber, event, startNanos);
+        }
+
+        private void pop() {
+            depth--;
+            subscriberStack[depth] = null;
+            eventStack[depth] = null;
+            if (depth == 0) {
+                publish(null, null, 0L);
+            } else {
+                // 恢复外层调用，开始时间不变，已报告过的不会重复报告
+                publish(subscriberStack[depth - 1], eventStack[depth - 1], startNanosStack[depth - 1]);
+            }
+        }
+
+        private void publish(Subscriber subscriber, Object event, long startNanos) {
+            long current = version;
+            VERSION_UPDATER.lazySet(this, current + 1);
+            SUBSCRIBER_UPDATER.lazySet(this, subscriber);
+            EVENT_UPDATER.lazySet(this, event);
+            START_NANOS_UPDATER.lazySet(this, startNanos);
+            VERSION_UPDATER.lazySet(this, current + 2);
+        }
+    }
+
+    /**
+     * 默认的慢订阅者处理（log）
+     */
+    static class LoggingSlowSubscriberHandler implements SlowSubscriberHandler {
+
+        @Override
+        public void handleSlowSubscriber(Object subscriber, Method subscriberMethod, Object event, long elapsedMillis,
+                                         StackTraceElement[] stackTrace, boolean isolated) {
+            StringBuilder stack = new StringBuilder();
+            for (StackTraceElement element : stackTrace) {
+                stack.append("\n\tat ").append(element);
+            }
+            logger.warn("slow subscriber, subscriber:{}, method:{}, elapsed:{}ms, isolated:{}, event:{}, stack:{}",
+                    subscriber.getClass().getName(), subscriberMethod.getName(), elapsedMillis, isolated, event, stack);
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 订阅关系，{@link EventBus#register(Object)}的返回值
+ * <p>
+ * 持有该订阅者对象注册时创建的所有{@link Subscriber}，取消订阅时直接按记录移除，
+ * 不需要重新扫描订阅者类的方法；适合频繁注册、取消的短生命周期订阅者
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public final class Subscription implements AutoCloseable {
+
+    private final SubscriberRegistry registry;
+    private final Object listener;
+    /**
+     * 与{@link #subscribers}一一对应的订阅事件类型
+     */
+    private final Class<?>[] eventTypes;
+    private final Subscriber[] subscribers;
+    private volatile boolean active = true;
+
+    Subscription(SubscriberRegistry registry, Object listener, Class<?>[] eventTypes, Subscriber[] subscribers) {
+        this.registry = registry;
+        this.listener = listener;
+        this.eventTypes = eventTypes;
+        this.subscribers = subscribers;
+    }
+
+    /**
+     * 取消订阅，重复调用无效
+     */
+    public void unregister() {
+        registry.unregister(this);
+    }
+
+    /**
+     * 同{@link #unregister()}
+     */
+    @Override
+    public void close() {
+        unregister();
+    }
+
+    /**
+     * @return 是否仍在订阅
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    Object getListener() {
+        return listener;
+    }
+
+    Class<?>[] getEventTypes() {
+        return eventTypes;
+    }
+
+    Subscriber[] getSubscribers() {
+        return subscribers;
+    }
+
+    void deactivate() {
+        this.active = false;
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.d8gmyself.core.eventbus;
+
+import com.google.common.base.Splitter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 主题订阅的前缀树
+ * <p>
+ * 订阅主题注册时按{@code .}拆分为节点路径，{@code *}和{@code #}各自为单独的子节点；
+ * 匹配时按发布主题的层级逐级查找，耗时只与主题层级和命中的通配分支有关，与订阅者数量无关。
+ * 增删由{@link SubscriberRegistry}加锁进行；匹配不加锁，节点的订阅者为写时复制的数组，匹配结果为修改前或修改后的状态
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+final class TopicTrie {
+
+    private static final String SEPARATOR = ".";
+    private static final String SINGLE_LEVEL = "*";
+    private static final String MULTI_LEVEL = "#";
+    private static final Splitter SPLITTER = Splitter.on(SEPARATOR);
+
+    private final Node root = new Node();
+    /**
+     * 每次增删后递增，用于判断匹配结果是否已过期，只在持有{@link SubscriberRegistry}的锁时修改
+     */
+    private volatile long version;
+
+    /**
+     * 校验订阅主题
+     *
+     * @param pattern 订阅主题，可包含通配符
+     */
+    static void checkPattern(String pattern) {
+        for (String segment : SPLITTER.split(pattern)) {
+            checkArgument(!segment.isEmpty(), "主题不能包含空的层级: %s", pattern);
+            checkArgument(segment.equals(SINGLE_LEVEL) || segment.equals(MULTI_LEVEL)
+                    || (!segment.contains(SINGLE_LEVEL) && !segment.contains(MULTI_LEVEL)), "通配符必须单独作为一级: %s", pattern);
+        }
+    }
+
+    void add(String pattern, Class<?> eventType, Subscriber subscriber) {
+        Node node = root;
+        for (String segment : SPLITTER.split(pattern)) {
+            node = node.children.computeIfAbsent(segment, key -> new Node());
+        }
+        node.add(new Entry(subscriber, eventType));
+        version++;
+    }
+
+    void remove(String pattern, Subscriber subscriber) {
+        remove(root, SPLITTER.splitToList(pattern), 0, subscriber);
+        version++;
+    }
+
+    /**
+     * @return 当前版本，匹配前读取，匹配后版本变化说明结果可能已过期
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * @return 节点是否已无用，可以从父节点移除
+     */
+    private static boolean remove(Node node, List<String> segments, int index, Subscriber subscriber) {
+        if (index == segments.size()) {
+            node.remove(subscriber);
+        } else {
+            Node child = node.children.get(segments.get(index));
+            if (child != null && remove(child, segments, index + 1, subscriber)) {
+                node.children.remove(segments.get(index));
+            }
+        }
+        return node.entries.length == 0 && node.children.isEmpty();
+    }
+
+    /**
+     * 查找订阅了匹配主题、且事件类型是{@code eventClass}父类型（含自身）的订阅者
+     *
+     * @param topic      发布的主题
+     * @param eventClass 事件的具体类型
+     * @param result     匹配的订阅者，同一订阅者只会加入一次
+     */
+    void match(String topic, Class<?> eventClass, List<Subscriber> result) {
+        match(root, SPLITTER.splitToList(topic), 0, eventClass, result);
+    }
+
+    private static void match(Node node, List<String> segments, int index, Class<?> eventClass, List<Subscriber> matched) {
+        Node multiLevel = node.children.get(MULTI_LEVEL);
+        if (multiLevel != null) {
+            // #匹配零到多级
+            for (int i = index; i <= segments.size(); i++) {
+                match(multiLevel, segments, i, eventClass, matched);
+            }
+        }
+        if (index == segments.size()) {
+            for (Entry entry : node.entries) {
+                // #可能经多条路径到达同一节点，匹配结果通常很少，直接按==查重
+                if (entry.eventType.isAssignableFrom(eventClass) && !containsIdentical(matched, entry.subscriber)) {
+                    matched.add(entry.subscriber);
+                }
+            }
+            return;
+        }
+        Node exact = node.children.get(segments.get(index));
+        if (exact != null) {
+            match(exact, segments, index + 1, eventClass, matched);
+        }
+        Node singleLevel = node.children.get(SINGLE_LEVEL);
+        if (singleLevel != null) {
+            match(singleLevel, segments, index + 1, eventClass, matched);
+        }
+    }
+
+    /**
+     * 判断发布的主题是否与订阅主题匹配
+     *
+     * @param pattern 订阅主题，可包含通配符
+     * @param topic   发布的主题
+     */
+    static boolean matches(String pattern, String topic) {
+        return matches(SPLITTER.splitToList(pattern), 0, SPLITTER.splitToList(topic), 0);
+    }
+
+    private static boolean matches(List<String> pattern, int patternIndex, List<String> topic, int topicIndex) {
+        if (patternIndex == pattern.size()) {
+            return topicIndex == topic.size();
+        }
+        String segment = pattern.get(patternIndex);
+        if (segment.equals(MULTI_LEVEL)) {
+            for (int i = topicIndex; i <= topic.size(); i++) {
+                if (matches(pattern, patternIndex + 1, topic, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return topicIndex < topic.size()
+                && (segment.equals(SINGLE_LEVEL) || segment.equals(topic.get(topicIndex)))
+                && matches(pattern, patternIndex + 1, topic, topicIndex + 1);
+    }
+
+    private static boolean containsIdentical(List<Subscriber> subscribers, Subscriber subscriber) {
+        for (Subscriber existing : subscribers) {
+            if (existing == subscriber) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+        private static final Entry[] EMPTY = new Entry[0];
+
+        private final Map<String, Node> children = new ConcurrentHashMap<>(4);
+        /**
+         * 订阅了该节点主题的订阅者，写时复制
+         */
+        private volatile Entry[] entries = EMPTY;
+
+        private void add(Entry entry) {
+            Entry[] current = entries;
+            Entry[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = entry;
+            entries = updated;
+        }
+
+        private void remove(Subscriber subscriber) {
+            Entry[] current = entries;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].subscriber == subscriber) {
+                    Entry[] updated = new Entry[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                    entries = updated;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 订阅者及其订阅的事件类型
+     */
+    private static final class Entry {
+        private final Subscriber subscriber;
+        private final Class<?> eventType;
+
+        private Entry(Subscriber subscriber, Class<?> eventType) {
+            this.subscriber = subscriber;
+            this.eventType = eventType;
+        }
+    }
+
+}
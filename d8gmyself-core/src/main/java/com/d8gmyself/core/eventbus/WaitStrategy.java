@@ -0,0 +1,25 @@
+package com.d8gmyself.core.eventbus;
+
+/**
+ * 环形队列消费者无事件可处理时的等待策略
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public enum WaitStrategy {
+
+    /**
+     * 忙等，延迟最低，但会一直占满一个CPU核
+     */
+    BUSY_SPIN,
+
+    /**
+     * 自旋一段时间后让出CPU，延迟和CPU占用折中
+     */
+    YIELDING,
+
+    /**
+     * 自旋一段时间后挂起线程，由生产者唤醒，CPU占用最低
+     */
+    PARKING
+
+}
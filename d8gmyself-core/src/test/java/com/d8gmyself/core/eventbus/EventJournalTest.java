@@ -0,0 +1,170 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link EventJournal}的分段切换、从提交位置回放、恢复时截断未写完的记录和目录互斥
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class EventJournalTest {
+
+    /**
+     * 每条记录8字节头部加9字节数据，一个分段放3条记录
+     */
+    private static final int SEGMENT_SIZE = 64;
+    private static final int RECORD_SIZE = 8 + 9;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<EventJournal> journals = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (EventJournal journal : journals) {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void rollsOverSegmentsAndDeletesConsumedSegments() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        EventJournal journal = open(directory);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(journal.append(record(i), null));
+        }
+        assertEquals(4, segmentFiles(directory).size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(text(record(i)), text(journal.poll()));
+        }
+        assertNull(journal.poll());
+        assertFalse(journal.hasUnread());
+        journal.commit();
+        // 只保留当前读取的分段
+        assertEquals(1, segmentFiles(directory).size());
+    }
+
+    @Test
+    public void replaysFromCommittedOffset() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        EventJournal journal = open(directory);
+        for (int i = 0; i < 8; i++) {
+            journal.append(record(i), null);
+        }
+        for (int i = 0; i < 4; i++) {
+            journal.poll();
+        }
+        journal.commit();
+        // 已读取但未提交的记录在重启后重新读取
+        journal.poll();
+        journal.close();
+
+        EventJournal reopened = open(directory);
+        for (int i = 4; i < 8; i++) {
+            assertEquals(text(record(i)), text(reopened.poll()));
+        }
+        assertNull(reopened.poll());
+        assertTrue(reopened.append(record(8), null));
+        assertEquals(text(record(8)), text(reopened.poll()));
+    }
+
+    @Test
+    public void truncatesIncompleteRecordOnRecovery() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        EventJournal journal = open(directory);
+        journal.append(record(0), null);
+        journal.append(record(1), null);
+        journal.close();
+        // 模拟进程崩溃时写了一半的记录：长度已写入，CRC不匹配
+        Path segment = segmentFiles(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer partial = ByteBuffer.allocate(RECORD_SIZE);
+            partial.putInt(9).putInt(12345).put(record(2), 0, 5);
+            partial.flip();
+            channel.write(partial, 2 * RECORD_SIZE);
+        }
+
+        EventJournal reopened = open(directory);
+        assertEquals(text(record(0)), text(reopened.poll()));
+        assertEquals(text(record(1)), text(reopened.poll()));
+        assertNull(reopened.poll());
+        // 新记录写在截断的位置
+        assertTrue(reopened.append(record(3), null));
+        assertEquals(text(record(3)), text(reopened.poll()));
+        assertEquals(1, segmentFiles(directory).size());
+    }
+
+    @Test
+    public void rejectsSecondJournalOnSameDirectory() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        EventJournal journal = open(directory);
+        try {
+            open(directory);
+            fail("journal directory is already in use");
+        } catch (IllegalStateException expected) {
+            // 已被第一个日志使用
+        }
+        journal.close();
+        open(directory).close();
+    }
+
+    @Test
+    public void closeIfDrainedRejectsLaterAppends() throws IOException {
+        EventJournal journal = open(folder.getRoot().toPath());
+        Object attachment = new Object();
+        journal.append(record(0), attachment);
+        assertFalse(journal.closeIfDrained());
+        journal.poll();
+        assertEquals(attachment, journal.attachment());
+        assertTrue(journal.closeIfDrained());
+        assertFalse(journal.append(record(1), null));
+    }
+
+    private EventJournal open(Path directory) throws IOException {
+        EventJournal journal = new EventJournal(directory, SEGMENT_SIZE);
+        journals.add(journal);
+        return journal;
+    }
+
+    private static byte[] record(int i) {
+        return String.format("record-%02d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return payload == null ? null : new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.journal")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link JournalDispatcher}重启后从提交位置回放、关闭时发布的事件都会完成，以及日志目录不能被两个事件总线同时使用
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class JournalDispatcherTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<EventBus> buses = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (EventBus bus : buses) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    public void replaysUnconsumedEventsAfterRestart() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        EventBus first = journalBus(directory);
+        first.register(new RecordingListener(0));
+        // 未开始消费，事件留在日志中
+        for (int i = 0; i < 100; i++) {
+            first.post(i);
+        }
+        first.shutdown();
+
+        EventBus second = journalBus(directory);
+        RecordingListener listener = new RecordingListener(100);
+        second.register(listener);
+        second.replayJournal();
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), listener.received.get(i));
+        }
+    }
+
+    @Test
+    public void postsRacingShutdownAllComplete() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            EventBus bus = journalBus(folder.newFolder().toPath());
+            bus.register(new RecordingListener(0));
+            bus.replayJournal();
+            List<CompletionStage<Void>> stages = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch posting = new CountDownLatch(1);
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    stages.add(bus.postAsync(i));
+                    posting.countDown();
+                }
+            });
+            publisher.start();
+            assertTrue(posting.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            bus.shutdown();
+            publisher.join();
+            // 关闭前写入日志的事件由消费者线程处理，之后发布的由发布线程处理，不会留在日志中不完成
+            CompletableFuture.allOf(stages.stream().map(CompletionStage::toCompletableFuture).toArray(CompletableFuture[]::new))
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void rejectsSecondBusOnSameDirectory() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        EventBus first = journalBus(directory);
+        try {
+            journalBus(directory);
+            fail("journal directory is already in use");
+        } catch (IllegalStateException expected) {
+            // 已被第一个事件总线使用
+        }
+        first.shutdown();
+        journalBus(directory);
+    }
+
+    private EventBus journalBus(Path directory) {
+        EventBus bus = EventBus.builder().setIdentifier("journal-test").setJournal(directory, 4096, null).build();
+        buses.add(bus);
+        return bus;
+    }
+
+    public static class RecordingListener {
+
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done;
+
+        RecordingListener(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Subscribe(async = true)
+        public void onEvent(Integer event) {
+            received.add(event);
+            done.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link KeyExtractors}创建私有的实现类并复用实例
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class KeyExtractorsTest {
+
+    @Test
+    public void createsPrivateNestedExtractor() {
+        KeyExtractor<Object> extractor = KeyExtractors.of(PrivateExtractor.class);
+        assertSame(extractor, KeyExtractors.of(PrivateExtractor.class));
+        assertTrue(extractor instanceof PrivateExtractor);
+        assertNull(KeyExtractors.of(KeyExtractor.class));
+    }
+
+    @Test
+    public void registersSubscriberWithPrivateExtractor() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        EventBus bus = EventBus.builder().setIdentifier("extractor-test").setExecutor(executor).build();
+        try {
+            CountDownLatch done = new CountDownLatch(10);
+            bus.register(new Object() {
+                @Subscribe(async = true, partitionKey = PrivateExtractor.class, partitions = 2)
+                public void onEvent(Integer event) {
+                    done.countDown();
+                }
+            });
+            for (int i = 0; i < 10; i++) {
+                bus.post(i);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            bus.shutdown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class PrivateExtractor implements KeyExtractor<Object> {
+
+        private PrivateExtractor() {
+        }
+
+        @Override
+        public Object extract(Object event) {
+            return event;
+        }
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link RingBufferDispatcher}的发布消费顺序、关闭时处理剩余事件和队列满时的反压
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class RingBufferDispatcherTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private EventBus bus;
+
+    @After
+    public void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    public void consumesInPublishOrderOnConsumerThread() throws InterruptedException {
+        bus = ringBus(64);
+        int events = 10000;
+        RecordingListener listener = new RecordingListener(events);
+        bus.register(listener);
+        for (int i = 0; i < events; i++) {
+            bus.post(i);
+        }
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < events; i++) {
+            assertEquals(Integer.valueOf(i), listener.received.get(i));
+        }
+        assertEquals(Collections.singleton("EventBus-ring-test-ring"), listener.threads);
+    }
+
+    @Test
+    public void keepsPerPublisherOrderWithMultipleProducers() throws InterruptedException {
+        bus = ringBus(16);
+        int producers = 4;
+        int eventsPerProducer = 5000;
+        RecordingListener listener = new RecordingListener(producers * eventsPerProducer);
+        bus.register(listener);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    bus.post(producer * eventsPerProducer + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        int[] last = new int[producers];
+        for (int i = 0; i < producers; i++) {
+            last[i] = -1;
+        }
+        for (Integer event : listener.received) {
+            int producer = event / eventsPerProducer;
+            int index = event % eventsPerProducer;
+            assertEquals(last[producer] + 1, index);
+            last[producer] = index;
+        }
+    }
+
+    @Test
+    public void shutdownDrainsClaimedEvents() throws InterruptedException {
+        bus = ringBus(1024);
+        int events = 1000;
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(events) {
+            @Override
+            void onReceived(Integer event) throws InterruptedException {
+                release.await();
+            }
+        };
+        bus.register(listener);
+        for (int i = 0; i < events; i++) {
+            bus.post(i);
+        }
+        bus.shutdown();
+        release.countDown();
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(events, listener.received.size());
+        for (int i = 0; i < events; i++) {
+            assertEquals(Integer.valueOf(i), listener.received.get(i));
+        }
+    }
+
+    @Test
+    public void postAfterShutdownRunsOnPublisherThread() throws InterruptedException {
+        bus = ringBus(16);
+        RecordingListener listener = new RecordingListener(1);
+        bus.register(listener);
+        bus.shutdown();
+        bus.post(1);
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Collections.singleton(Thread.currentThread().getName()), listener.threads);
+    }
+
+    @Test
+    public void fullRingBlocksPublisherUntilConsumed() throws InterruptedException {
+        int bufferSize = 4;
+        bus = ringBus(bufferSize);
+        int events = 10;
+        CountDownLatch consuming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(events) {
+            @Override
+            void onReceived(Integer event) throws InterruptedException {
+                consuming.countDown();
+                release.await();
+            }
+        };
+        bus.register(listener);
+        AtomicInteger published = new AtomicInteger();
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < events; i++) {
+                bus.post(i);
+                published.incrementAndGet();
+            }
+        });
+        publisher.start();
+        assertTrue(consuming.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 消费者卡在第一个事件上，队列中最多再容纳bufferSize个事件
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertTrue(publisher.isAlive());
+        assertTrue("published: " + published.get(), published.get() <= bufferSize + 1);
+        release.countDown();
+        publisher.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(events, published.get());
+        for (int i = 0; i < events; i++) {
+            assertEquals(Integer.valueOf(i), listener.received.get(i));
+        }
+    }
+
+    @Test
+    public void publishFromConsumerThreadDoesNotDeadlockWhenFull() throws InterruptedException {
+        bus = ringBus(2);
+        int events = 100;
+        CountDownLatch done = new CountDownLatch(1);
+        bus.register(new Object() {
+            @Subscribe(async = true)
+            public void onEvent(Integer event) {
+                if (event < 0) {
+                    return;
+                }
+                if (event < events) {
+                    // 连续发布两个事件，队列很快被填满
+                    bus.post(event + 1);
+                    bus.post(-1);
+                } else {
+                    done.countDown();
+                }
+            }
+        });
+        bus.post(1);
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private static EventBus ringBus(int bufferSize) {
+        return EventBus.builder().setIdentifier("ring-test").setRingBuffer(bufferSize, WaitStrategy.PARKING).build();
+    }
+
+    public static class RecordingListener {
+
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        final CountDownLatch done;
+
+        RecordingListener(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Subscribe(async = true)
+        public void onEvent(Integer event) throws InterruptedException {
+            onReceived(event);
+            received.add(event);
+            threads.add(Thread.currentThread().getName());
+            done.countDown();
+        }
+
+        void onReceived(Integer event) throws InterruptedException {
+        }
+    }
+
+}
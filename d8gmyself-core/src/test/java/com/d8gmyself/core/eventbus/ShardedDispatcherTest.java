@@ -0,0 +1,107 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ShardedDispatcher}通道挂起后的唤醒和空闲时不轮询
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class ShardedDispatcherTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private EventBus bus;
+
+    @After
+    public void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    public void parkedLanesWakeUpForNewEvents() throws InterruptedException {
+        bus = shardedBus("shard-test", 4);
+        CountingListener listener = new CountingListener();
+        bus.register(listener);
+        for (int round = 0; round < 3; round++) {
+            // 通道空闲后不限时挂起
+            TimeUnit.MILLISECONDS.sleep(50);
+            int events = 1000;
+            listener.expect(events);
+            for (int i = 0; i < events; i++) {
+                bus.post(i);
+            }
+            assertTrue("round " + round, listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(3000, listener.received.get());
+    }
+
+    @Test
+    public void idleLanesDoNotPoll() throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadCpuTimeSupported());
+        int laneCount = 8;
+        bus = shardedBus("shard-idle-test", laneCount);
+        CountingListener listener = new CountingListener();
+        bus.register(listener);
+        listener.expect(1);
+        bus.post(1);
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(100);
+        List<Thread> lanes = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("EventBus-shard-idle-test-lane-")) {
+                lanes.add(thread);
+            }
+        }
+        assertEquals(laneCount, lanes.size());
+        long cpuBefore = totalCpuTime(threads, lanes);
+        TimeUnit.SECONDS.sleep(1);
+        long cpuNanos = totalCpuTime(threads, lanes) - cpuBefore;
+        assertTrue("lane cpu: " + cpuNanos, cpuNanos < TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    private static long totalCpuTime(ThreadMXBean threads, List<Thread> lanes) {
+        long total = 0;
+        for (Thread lane : lanes) {
+            total += Math.max(0, threads.getThreadCpuTime(lane.getId()));
+        }
+        return total;
+    }
+
+    private static EventBus shardedBus(String identifier, int lanes) {
+        return EventBus.builder().setIdentifier(identifier).setSharded(lanes, null, WaitStrategy.PARKING).build();
+    }
+
+    public static class CountingListener {
+
+        final AtomicInteger received = new AtomicInteger();
+        volatile CountDownLatch done;
+
+        void expect(int events) {
+            done = new CountDownLatch(events);
+        }
+
+        @Subscribe(async = true)
+        public void onEvent(Integer event) {
+            received.incrementAndGet();
+            done.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,293 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 通过临时文件连接两个{@link EventBus}：{@link SharedMemoryRing}的回绕填充和溢出，
+ * {@link SharedMemoryBridge}的按序转发、接收端溢出和双向桥接时不形成回路
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class SharedMemoryBridgeTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int CAPACITY = SharedMemoryRing.MIN_CAPACITY;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Closeable> resources = new ArrayList<>();
+    private final List<EventBus> buses = new ArrayList<>();
+
+    @After
+    public void tearDown() throws IOException {
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+        for (EventBus bus : buses) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    public void ringWrapsAroundWithPadding() throws IOException {
+        Path file = folder.newFile().toPath();
+        SharedMemoryRing producer = track(SharedMemoryRing.openProducer(file, CAPACITY));
+        SharedMemoryRing consumer = track(SharedMemoryRing.openConsumer(file));
+        long written = 0;
+        for (int i = 0; i < 2000; i++) {
+            // 长度不断变化，分段末尾的剩余空间有时能放下填充标记，有时连记录头都放不下
+            byte[] payload = payload(i, 1 + (i * 37) % 500);
+            producer.write(payload);
+            written += payload.length;
+            assertArrayEquals("record " + i, payload, consumer.poll());
+            assertNull(consumer.poll());
+        }
+        assertTrue(written > 10L * CAPACITY);
+        assertEquals(0, consumer.getOverruns());
+    }
+
+    @Test
+    public void ringConsumerOverrunSkipsToLatest() throws IOException {
+        Path file = folder.newFile().toPath();
+        SharedMemoryRing producer = track(SharedMemoryRing.openProducer(file, CAPACITY));
+        SharedMemoryRing consumer = track(SharedMemoryRing.openConsumer(file));
+        for (int i = 0; i < 100; i++) {
+            producer.write(payload(i, 100));
+        }
+        // 落后超过一圈，跳过中间的记录
+        assertNull(consumer.poll());
+        assertEquals(1, consumer.getOverruns());
+        byte[] latest = payload(100, 100);
+        producer.write(latest);
+        assertArrayEquals(latest, consumer.poll());
+        assertEquals(1, consumer.getOverruns());
+    }
+
+    @Test
+    public void ringRejectsSecondProducer() throws IOException {
+        Path file = folder.newFile().toPath();
+        SharedMemoryRing producer = SharedMemoryRing.openProducer(file, CAPACITY);
+        try {
+            SharedMemoryRing.openProducer(file, CAPACITY).close();
+            fail("file already has a producer");
+        } catch (IllegalStateException expected) {
+            // 已有生产者
+        }
+        producer.close();
+        track(SharedMemoryRing.openProducer(file, CAPACITY));
+    }
+
+    @Test
+    public void bridgesEventsInPublishOrder() throws Exception {
+        Path file = folder.newFile().toPath();
+        EventBus source = bus("bridge-source");
+        EventBus target = bus("bridge-target");
+        // 容量足够放下全部事件，接收端不会溢出
+        track(SharedMemoryBridge.publisher(source, file, 1 << 20, Quote.class));
+        track(SharedMemoryBridge.subscriber(target, file, WaitStrategy.PARKING, Quote.class));
+        QuoteListener listener = new QuoteListener();
+        target.register(listener);
+        awaitConnected(source, listener);
+
+        int events = 1000;
+        listener.expect(events);
+        for (int i = 0; i < events; i++) {
+            source.post(new Quote("q", i));
+        }
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        List<Long> prices = listener.prices("q");
+        assertEquals(events, prices.size());
+        for (int i = 0; i < events; i++) {
+            assertEquals(Long.valueOf(i), prices.get(i));
+        }
+    }
+
+    @Test
+    public void slowReceiverOverrunsAndCatchesUp() throws Exception {
+        Path file = folder.newFile().toPath();
+        EventBus source = bus("bridge-source");
+        EventBus target = bus("bridge-target");
+        track(SharedMemoryBridge.publisher(source, file, CAPACITY, Quote.class));
+        SharedMemoryBridge receiver = track(SharedMemoryBridge.subscriber(target, file, WaitStrategy.PARKING, Quote.class));
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        QuoteListener listener = new QuoteListener() {
+            @Override
+            void onReceived(Quote quote) throws InterruptedException {
+                if ("block".equals(quote.symbol)) {
+                    blocked.countDown();
+                    release.await();
+                }
+            }
+        };
+        target.register(listener);
+        awaitConnected(source, listener);
+
+        source.post(new Quote("block", 0));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 接收线程阻塞期间写入超过一圈
+        for (int i = 0; i < 1000; i++) {
+            source.post(new Quote("lost", i));
+        }
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (receiver.getOverruns() == 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(1, receiver.getOverruns());
+        // 跳到最新位置后继续接收
+        listener.expect(1);
+        source.post(new Quote("after", 1));
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(1L), listener.prices("after"));
+        assertTrue(listener.prices("lost").size() < 1000);
+    }
+
+    @Test
+    public void bidirectionalBridgeDoesNotLoop() throws Exception {
+        Path aToB = folder.newFile().toPath();
+        Path bToA = folder.newFile().toPath();
+        EventBus a = bus("bridge-a");
+        EventBus b = bus("bridge-b");
+        track(SharedMemoryBridge.publisher(a, aToB, CAPACITY, Quote.class));
+        track(SharedMemoryBridge.publisher(b, bToA, CAPACITY, Quote.class));
+        track(SharedMemoryBridge.subscriber(b, aToB, WaitStrategy.PARKING, Quote.class));
+        track(SharedMemoryBridge.subscriber(a, bToA, WaitStrategy.PARKING, Quote.class));
+        QuoteListener onA = new QuoteListener();
+        QuoteListener onB = new QuoteListener();
+        a.register(onA);
+        b.register(onB);
+        awaitConnected(a, onB);
+        awaitConnected(b, onA);
+        onA.clear();
+        onB.clear();
+
+        onB.expect(1);
+        a.post(new Quote("from-a", 1));
+        assertTrue(onB.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        onA.expect(1);
+        b.post(new Quote("from-b", 2));
+        assertTrue(onA.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 接收端重新发布的事件不再转发回去
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertEquals(Arrays.asList("from-a", "from-b"), onA.symbols());
+        assertEquals(Arrays.asList("from-a", "from-b"), onB.symbols());
+    }
+
+    /**
+     * 接收端在后台打开文件，之后的事件才能收到；持续发布探测事件直到接收端收到
+     */
+    private static void awaitConnected(EventBus source, QuoteListener listener) throws InterruptedException {
+        listener.expect(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!listener.done.await(10, TimeUnit.MILLISECONDS)) {
+            assertTrue("receiver not connected", System.nanoTime() < deadline);
+            source.post(new Quote("probe", 0));
+        }
+        // 等待已写入的探测事件都被接收
+        TimeUnit.MILLISECONDS.sleep(50);
+    }
+
+    private EventBus bus(String identifier) {
+        EventBus bus = EventBus.builder().setIdentifier(identifier).build();
+        buses.add(bus);
+        return bus;
+    }
+
+    private <T extends Closeable> T track(T resource) {
+        resources.add(resource);
+        return resource;
+    }
+
+    private static byte[] payload(int index, int length) {
+        byte[] payload = new byte[length];
+        byte[] prefix = Integer.toString(index).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < length; i++) {
+            payload[i] = i < prefix.length ? prefix[i] : (byte) (index + i);
+        }
+        return payload;
+    }
+
+    public static final class Quote {
+        private String symbol;
+        private long price;
+
+        private Quote() {
+        }
+
+        Quote(String symbol, long price) {
+            this.symbol = symbol;
+            this.price = price;
+        }
+    }
+
+    public static class QuoteListener {
+
+        private final List<Quote> received = Collections.synchronizedList(new ArrayList<>());
+        volatile CountDownLatch done = new CountDownLatch(0);
+
+        void expect(int events) {
+            done = new CountDownLatch(events);
+        }
+
+        void clear() {
+            received.clear();
+        }
+
+        @Subscribe
+        public void onEvent(Quote quote) throws InterruptedException {
+            onReceived(quote);
+            if (!"probe".equals(quote.symbol)) {
+                received.add(quote);
+            }
+            done.countDown();
+        }
+
+        void onReceived(Quote quote) throws InterruptedException {
+        }
+
+        List<Long> prices(String symbol) {
+            List<Long> prices = new ArrayList<>();
+            synchronized (received) {
+                for (Quote quote : received) {
+                    if (quote.symbol.equals(symbol)) {
+                        prices.add(quote.price);
+                    }
+                }
+            }
+            return prices;
+        }
+
+        List<String> symbols() {
+            List<String> symbols = new ArrayList<>();
+            synchronized (received) {
+                for (Quote quote : received) {
+                    symbols.add(quote.symbol);
+                }
+            }
+            return symbols;
+        }
+    }
+
+}
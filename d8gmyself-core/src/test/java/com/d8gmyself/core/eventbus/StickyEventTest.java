@@ -0,0 +1,146 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 粘性事件并发发布时保留最新事件，以及回放期间提前缓冲的实时事件不重复投递
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class StickyEventTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int ROUNDS = 20000;
+
+    private EventBus bus;
+
+    @After
+    public void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentAddsKeepNewestEvent() throws Exception {
+        StickyEventRing[] ring = new StickyEventRing[1];
+        CyclicBarrier start = new CyclicBarrier(3);
+        CyclicBarrier end = new CyclicBarrier(3);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            Object event = "event-" + t;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        start.await();
+                        ring[0].add(event, null);
+                        end.await();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        List<StickyEventRing.Entry> entries = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            ring[0] = new StickyEventRing(String.class, 1);
+            start.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            end.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            entries.clear();
+            ring[0].snapshot(entries);
+            // 两次发布都已完成，槽位中必须是序号较大的事件
+            assertEquals("round " + round, 1, entries.size());
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    public void snapshotKeepsPublishOrderAfterWrap() {
+        StickyEventRing ring = new StickyEventRing(String.class, 3);
+        for (int i = 0; i < 5; i++) {
+            ring.add("event-" + i, null);
+        }
+        List<StickyEventRing.Entry> entries = new ArrayList<>();
+        ring.snapshot(entries);
+        assertEquals(3, entries.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("event-" + (i + 2), entries.get(i).getEvent());
+        }
+    }
+
+    @Test
+    public void liveEventBufferedBeforeSnapshotIsDeliveredOnce() {
+        bus = EventBus.builder().setIdentifier("sticky-test").build();
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Subscriber subscriber = bus.register(new Object() {
+            @Subscribe
+            public void onEvent(String event) {
+                received.add(event);
+            }
+        }).getSubscribers()[0];
+        String event = "live";
+        StickyReplay replay = new StickyReplay(subscriber, String.class);
+        subscriber.beginReplay(replay);
+        PostCompletion completion = new PostCompletion();
+        // 发布线程写入保留的事件后先于读取保留的事件到达订阅者
+        subscriber.processEvent(event, completion);
+        replay.add(event);
+        replay.replay();
+        assertEquals(Collections.singletonList(event), received);
+        // 释放发布线程自身持有的计数后完成，跳过的缓冲事件同样释放了计数
+        completion.onComplete(null);
+        assertTrue(completion.isDone());
+        assertTrue(!completion.isCompletedExceptionally());
+    }
+
+    @Test
+    public void lateSubscriberReceivesStickyEventsBeforeLiveEvents() {
+        bus = EventBus.builder().setIdentifier("sticky-test").build();
+        State first = new State(1);
+        State second = new State(2);
+        bus.post(first);
+        bus.post(second);
+        List<State> received = Collections.synchronizedList(new ArrayList<>());
+        bus.register(new Object() {
+            @Subscribe
+            public void onEvent(State state) {
+                received.add(state);
+            }
+        });
+        State third = new State(3);
+        bus.post(third);
+        assertEquals(2, received.size());
+        assertSame(second, received.get(0));
+        assertSame(third, received.get(1));
+    }
+
+    @StickyEvent
+    public static final class State {
+        private final int value;
+
+        State(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "State" + value;
+        }
+    }
+
+}
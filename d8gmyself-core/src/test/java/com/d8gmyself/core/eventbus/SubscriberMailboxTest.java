@@ -0,0 +1,238 @@
+package com.d8gmyself.core.eventbus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link SubscriberMailbox}的串行处理、处理权交接、按批重新提交和线程池拒绝时的处理
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class SubscriberMailboxTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int CHAIN_LENGTH = 1000;
+
+    private EventBus bus;
+    private ExecutorService executor;
+
+    @After
+    public void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void drainsSeriallyInPublishOrderWithConcurrentProducers() throws InterruptedException {
+        executor = Executors.newFixedThreadPool(8);
+        bus = EventBus.builder().setIdentifier("mailbox-test").setExecutor(executor).build();
+        int producers = 4;
+        int eventsPerProducer = 5000;
+        SerialListener listener = new SerialListener(producers * eventsPerProducer);
+        bus.register(listener);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    bus.post(producer * eventsPerProducer + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 同一时刻最多只有一个线程在处理信箱
+        assertEquals(1, listener.maxConcurrency.get());
+        int[] last = new int[producers];
+        for (int i = 0; i < producers; i++) {
+            last[i] = -1;
+        }
+        for (Integer event : listener.received) {
+            int producer = event / eventsPerProducer;
+            int index = event % eventsPerProducer;
+            assertEquals(last[producer] + 1, index);
+            last[producer] = index;
+        }
+    }
+
+    @Test
+    public void eventsOfferedWhileDrainingAreHandedToCurrentDrainer() throws InterruptedException {
+        CountingExecutor counting = new CountingExecutor(Integer.MAX_VALUE);
+        executor = counting;
+        bus = EventBus.builder().setIdentifier("mailbox-test").setExecutor(executor).build();
+        CountDownLatch consuming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int events = 100;
+        SerialListener listener = new SerialListener(events) {
+            @Override
+            void onReceived(Integer event) throws InterruptedException {
+                if (event == 0) {
+                    consuming.countDown();
+                    release.await();
+                }
+            }
+        };
+        bus.register(listener);
+        bus.post(0);
+        assertTrue(consuming.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 信箱正在处理，之后入队的事件不再提交到线程池
+        for (int i = 1; i < events; i++) {
+            bus.post(i);
+        }
+        release.countDown();
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, counting.submitted.get());
+        assertEquals(1, listener.threads.size());
+        for (int i = 0; i < events; i++) {
+            assertEquals(Integer.valueOf(i), listener.received.get(i));
+        }
+    }
+
+    @Test
+    public void resubmitsAfterBatchSize() throws InterruptedException {
+        CountingExecutor counting = new CountingExecutor(Integer.MAX_VALUE);
+        executor = counting;
+        bus = EventBus.builder().setIdentifier("mailbox-test").setExecutor(executor).build();
+        ChainListener listener = new ChainListener();
+        bus.register(listener);
+        bus.post(0);
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // 每次只有一个待处理事件，每处理256个重新提交一次
+        assertEquals(1 + (CHAIN_LENGTH - 1) / 256, counting.submitted.get());
+        assertEquals(Collections.emptyList(), listener.failures);
+    }
+
+    @Test
+    public void rejectedResubmitKeepsDrainingWithoutRecursion() throws InterruptedException {
+        // 只接受第一次提交，之后按批重新提交都被拒绝
+        CountingExecutor counting = new CountingExecutor(1);
+        executor = counting;
+        bus = EventBus.builder().setIdentifier("mailbox-test").setExecutor(executor).build();
+        ChainListener listener = new ChainListener();
+        bus.register(listener);
+        bus.post(0);
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, listener.threads.size());
+        assertEquals(Collections.emptyList(), listener.failures);
+    }
+
+    @Test
+    public void rejectedFirstSubmitDrainsOnPublisherThread() throws InterruptedException {
+        CountingExecutor counting = new CountingExecutor(0);
+        executor = counting;
+        bus = EventBus.builder().setIdentifier("mailbox-test").setExecutor(executor).build();
+        ChainListener listener = new ChainListener();
+        bus.register(listener);
+        bus.post(0);
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Collections.singleton(Thread.currentThread().getName()), listener.threads);
+        assertEquals(Collections.emptyList(), listener.failures);
+    }
+
+    /**
+     * 只接受前{@code accepts}次提交，之后都拒绝
+     */
+    private static final class CountingExecutor extends ThreadPoolExecutor {
+
+        private final int accepts;
+        private final AtomicInteger submitted = new AtomicInteger();
+
+        private CountingExecutor(int accepts) {
+            super(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+            this.accepts = accepts;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (submitted.get() >= accepts) {
+                throw new RejectedExecutionException("rejected by test");
+            }
+            submitted.incrementAndGet();
+            super.execute(command);
+        }
+    }
+
+    public static class SerialListener {
+
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        final AtomicInteger concurrency = new AtomicInteger();
+        final AtomicInteger maxConcurrency = new AtomicInteger();
+        final CountDownLatch done;
+
+        SerialListener(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Subscribe(async = true, allowConcurrency = false)
+        public void onEvent(Integer event) throws InterruptedException {
+            int current = concurrency.incrementAndGet();
+            maxConcurrency.accumulateAndGet(current, Math::max);
+            try {
+                onReceived(event);
+                received.add(event);
+                threads.add(Thread.currentThread().getName());
+            } finally {
+                concurrency.decrementAndGet();
+            }
+            done.countDown();
+        }
+
+        void onReceived(Integer event) throws InterruptedException {
+        }
+    }
+
+    /**
+     * 每个事件处理时发布下一个事件，信箱中始终只有一个待处理事件；
+     * 记录调用栈深度，重新提交被拒绝时栈深度不应增长
+     */
+    public class ChainListener {
+
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+        private int firstDepth;
+
+        @Subscribe(async = true, allowConcurrency = false)
+        public void onEvent(Integer event) {
+            threads.add(Thread.currentThread().getName());
+            int depth = Thread.currentThread().getStackTrace().length;
+            if (event == 0) {
+                firstDepth = depth;
+            } else if (depth != firstDepth) {
+                failures.add("event " + event + " stack depth " + depth + ", first " + firstDepth);
+            }
+            if (event + 1 < CHAIN_LENGTH) {
+                bus.post(event + 1);
+            } else {
+                done.countDown();
+            }
+        }
+    }
+
+}
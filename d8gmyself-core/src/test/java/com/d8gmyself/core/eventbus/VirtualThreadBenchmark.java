@@ -0,0 +1,80 @@
+package com.d8gmyself.core.eventbus;
+
+import com.d8gmyself.concurrency.VirtualThreads;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阻塞型异步订阅者在平台线程池和虚拟线程下的吞吐对比
+ * <p>
+ * 平台线程池与ExecuteUtils默认线程池配置相同（32~64线程，队列8192，CallerRunsPolicy），
+ * 每个事件处理阻塞{@link #BLOCKING_MILLIS}毫秒，模拟IO。
+ * 虚拟线程模式需要使用Java 21运行，且classpath中的d8gmyself-concurrency为multi-release jar：
+ * </p>
+ * <pre>
+ * mvn install -Djdk21.home=/path/to/jdk21
+ * java -cp ... com.d8gmyself.core.eventbus.VirtualThreadBenchmark [events]
+ * </pre>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+public class VirtualThreadBenchmark {
+
+    private static final long BLOCKING_MILLIS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        // 预热
+        run(platformBus(), events / 10);
+        System.out.printf("platform: %,.0f events/s%n", run(platformBus(), events));
+        if (VirtualThreads.isSupported()) {
+            run(virtualBus(), events / 10);
+            System.out.printf("virtual:  %,.0f events/s%n", run(virtualBus(), events));
+        } else {
+            System.out.println("virtual:  not supported, requires Java 21+ and multi-release d8gmyself-concurrency jar");
+        }
+    }
+
+    private static EventBus platformBus() {
+        return EventBus.builder().setIdentifier("platform").setExecutor(new ThreadPoolExecutor(32, 64, 5, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(8192), new ThreadFactoryBuilder().setNameFormat("benchmark-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy())).build();
+    }
+
+    private static EventBus virtualBus() {
+        return EventBus.builder().setIdentifier("virtual").setVirtualThreads(true).build();
+    }
+
+    private static double run(EventBus bus, int events) throws InterruptedException {
+        BlockingListener listener = new BlockingListener(events);
+        bus.register(listener);
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            bus.post(i);
+        }
+        listener.done.await();
+        long elapsed = System.nanoTime() - start;
+        bus.shutdown();
+        return events * 1e9 / elapsed;
+    }
+
+    public static class BlockingListener {
+
+        private final CountDownLatch done;
+
+        BlockingListener(int events) {
+            this.done = new CountDownLatch(events);
+        }
+
+        @Subscribe(async = true)
+        public void onEvent(Integer event) throws InterruptedException {
+            Thread.sleep(BLOCKING_MILLIS);
+            done.countDown();
+        }
+    }
+
+}
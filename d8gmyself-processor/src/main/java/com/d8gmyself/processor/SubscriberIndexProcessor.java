@@ -0,0 +1,341 @@
+package com.d8gmyself.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 为{@code @Subscribe}方法生成订阅者索引
+ * <p>
+ * 生成一个实现{@code com.d8gmyself.core.eventbus.SubscriberIndex}的类，并注册到{@code META-INF/services}，
+ * 事件总线注册订阅者时直接使用索引中的方法信息和调用器，不再扫描整个类的方法，也不需要在运行时生成调用器。
+ * 同时生成GraalVM native-image所需的reflect-config.json。
+ * </p>
+ * <p>
+ * 索引类名通过{@code -Ad8gmyself.subscriberIndex=com.foo.MySubscriberIndex}指定，
+ * 未指定时为第一个订阅者所在包下的{@code D8gmyselfSubscriberIndex}。
+ * 索引类无法访问的订阅者类（如其他包中的非public类）不会被收录，运行时仍通过反射查找。
+ * </p>
+ * <p>
+ * 被收录的类的父类和接口中没有订阅方法的类型（{@code java.*}、{@code javax.*}除外）也记录到索引中，
+ * 运行时查找父类型的订阅方法时同样不需要反射扫描。
+ * </p>
+ *
+ * @author zhangduo -- 2026/10/16
+ */
+@SupportedAnnotationTypes(SubscriberIndexProcessor.SUBSCRIBE_ANNOTATION)
+@SupportedOptions(SubscriberIndexProcessor.OPTION_INDEX)
+public class SubscriberIndexProcessor extends AbstractProcessor {
+
+    static final String SUBSCRIBE_ANNOTATION = "com.d8gmyself.core.eventbus.Subscribe";
+    static final String OPTION_INDEX = "d8gmyself.subscriberIndex";
+    private static final String INDEX_INTERFACE = "com.d8gmyself.core.eventbus.SubscriberIndex";
+    private static final String DEFAULT_INDEX_SIMPLE_NAME = "D8gmyselfSubscriberIndex";
+
+    private final Map<TypeElement, List<ExecutableElement>> subscriberMethods = new LinkedHashMap<>();
+    private boolean written;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (annotations.isEmpty()) {
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) element;
+                if (method.getParameters().size() != 1) {
+                    error(method, "Subscribe方法只能有一个参数，该参数为要处理的事件类型或List<事件类型>");
+                    continue;
+                }
+                if (written) {
+                    warning(method, "订阅者索引已在之前的编译轮次中生成，该方法不会被收录，运行时将通过反射查找");
+                    continue;
+                }
+                subscriberMethods.computeIfAbsent((TypeElement) method.getEnclosingElement(), key -> new ArrayList<>()).add(method);
+            }
+        }
+        if (!written && !subscriberMethods.isEmpty()) {
+            writeIndex();
+            written = true;
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        String indexClassName = processingEnv.getOptions().get(OPTION_INDEX);
+        if (indexClassName == null || indexClassName.trim().isEmpty()) {
+            PackageElement firstPackage = processingEnv.getElementUtils().getPackageOf(subscriberMethods.keySet().iterator().next());
+            indexClassName = firstPackage.isUnnamed() ? DEFAULT_INDEX_SIMPLE_NAME
+                    : firstPackage.getQualifiedName() + "." + DEFAULT_INDEX_SIMPLE_NAME;
+        }
+        int lastDot = indexClassName.lastIndexOf('.');
+        String indexPackage = lastDot < 0 ? "" : indexClassName.substring(0, lastDot);
+        String indexSimpleName = indexClassName.substring(lastDot + 1);
+
+        Map<TypeElement, List<ExecutableElement>> indexed = new LinkedHashMap<>();
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : subscriberMethods.entrySet()) {
+            if (isIndexable(entry.getKey(), entry.getValue(), indexPackage)) {
+                indexed.put(entry.getKey(), entry.getValue());
+            } else {
+                note(entry.getKey(), "订阅者类对" + indexClassName + "不可见，运行时将通过反射查找");
+            }
+        }
+        Set<TypeElement> withoutSubscribers = findSupertypesWithoutSubscribers(indexed.keySet(), indexPackage);
+        Element[] originatingElements = subscriberMethods.keySet().toArray(new Element[0]);
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(indexClassName, originatingElements);
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(generateIndexSource(indexPackage, indexSimpleName, indexed, withoutSubscribers));
+            }
+            FileObject serviceFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/" + INDEX_INTERFACE, originatingElements);
+            try (Writer writer = serviceFile.openWriter()) {
+                writer.write(indexClassName + "\n");
+            }
+            FileObject reflectConfig = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/native-image/d8gmyself/" + indexClassName + "/reflect-config.json", originatingElements);
+            try (Writer writer = reflectConfig.openWriter()) {
+                writer.write(generateReflectConfig(indexClassName, indexed));
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "生成订阅者索引失败: " + e);
+        }
+    }
+
+    /**
+     * 被收录的类的所有父类和接口中，没有订阅方法且能被索引类引用的类型
+     */
+    private Set<TypeElement> findSupertypesWithoutSubscribers(Set<TypeElement> indexedTypes, String indexPackage) {
+        Set<TypeElement> result = new LinkedHashSet<>();
+        Set<TypeElement> visited = new HashSet<>(indexedTypes);
+        Deque<TypeElement> pending = new ArrayDeque<>(indexedTypes);
+        while (!pending.isEmpty()) {
+            TypeElement type = pending.poll();
+            List<TypeMirror> supertypes = new ArrayList<>(type.getInterfaces());
+            supertypes.add(type.getSuperclass());
+            for (TypeMirror supertype : supertypes) {
+                if (supertype.getKind() != TypeKind.DECLARED) {
+                    continue;
+                }
+                TypeElement element = (TypeElement) ((DeclaredType) supertype).asElement();
+                if (isPlatformType(element) || !visited.add(element)) {
+                    continue;
+                }
+                pending.add(element);
+                // 依赖库中带订阅方法的类型交给其自己的索引或反射查找
+                if (!subscriberMethods.containsKey(element) && !hasSubscribeMethod(element) && isAccessible(element, indexPackage)) {
+                    result.add(element);
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isPlatformType(TypeElement type) {
+        String name = type.getQualifiedName().toString();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    /**
+     * {@code @Subscribe}在运行时保留，依赖库中的类型也能从class文件中读到
+     */
+    private boolean hasSubscribeMethod(TypeElement type) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(SUBSCRIBE_ANNOTATION)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private String generateIndexSource(String indexPackage, String indexSimpleName, Map<TypeElement, List<ExecutableElement>> indexed,
+                                       Set<TypeElement> withoutSubscribers) {
+        StringBuilder source = new StringBuilder();
+        if (!indexPackage.isEmpty()) {
+            source.append("package ").append(indexPackage).append(";\n\n");
+        }
+        source.append("import com.d8gmyself.core.eventbus.SubscriberIndex;\n")
+                .append("import com.d8gmyself.core.eventbus.SubscriberMethodInfo;\n\n")
+                .append("import java.util.HashMap;\n")
+                .append("import java.util.Map;\n\n")
+                .append("/**\n * 订阅者索引，由").append(SubscriberIndexProcessor.class.getName()).append("生成，请勿修改\n */\n")
+                .append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+                .append("public final class ").append(indexSimpleName).append(" implements SubscriberIndex {\n\n")
+                .append("    private static final SubscriberMethodInfo[] NONE = new SubscriberMethodInfo[0];\n")
+                .append("    private static final Map<Class<?>, SubscriberMethodInfo[]> INDEX = new HashMap<>();\n\n")
+                .append("    static {\n");
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : indexed.entrySet()) {
+            String typeName = entry.getKey().getQualifiedName().toString();
+            source.append("        INDEX.put(").append(typeName).append(".class, new SubscriberMethodInfo[]{\n");
+            for (ExecutableElement method : entry.getValue()) {
+                TypeMirror parameterType = erasure(method.getParameters().get(0));
+                source.append("                new SubscriberMethodInfo(\"").append(method.getSimpleName()).append("\", new Class<?>[]{")
+                        .append(parameterType).append(".class}, ")
+                        .append(generateInvoker(typeName, method, parameterType, indexPackage)).append("),\n");
+            }
+            source.append("        });\n");
+        }
+        for (TypeElement type : withoutSubscribers) {
+            source.append("        INDEX.put(").append(type.getQualifiedName()).append(".class, NONE);\n");
+        }
+        source.append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public SubscriberMethodInfo[] getSubscriberMethods(Class<?> clazz) {\n")
+                .append("        return INDEX.get(clazz);\n")
+                .append("    }\n\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 方法可从索引类直接调用时生成直接调用的lambda，否则为null，由事件总线在运行时生成调用器
+     */
+    private String generateInvoker(String typeName, ExecutableElement method, TypeMirror parameterType, String indexPackage) {
+        Set<Modifier> modifiers = method.getModifiers();
+        boolean accessible = modifiers.contains(Modifier.PUBLIC)
+                || (!modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.PROTECTED) && isInPackage(method, indexPackage));
+        if (!accessible) {
+            return "null";
+        }
+        String argumentType = parameterType.getKind().isPrimitive()
+                ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) parameterType).getQualifiedName().toString()
+                : parameterType.toString();
+        String receiver = modifiers.contains(Modifier.STATIC) ? typeName : "((" + typeName + ") target)";
+        return "(target, event) -> " + receiver + "." + method.getSimpleName() + "((" + argumentType + ") event)";
+    }
+
+    private String generateReflectConfig(String indexClassName, Map<TypeElement, List<ExecutableElement>> indexed) {
+        StringBuilder json = new StringBuilder("[\n");
+        json.append("  {\"name\": \"").append(indexClassName).append("\", \"methods\": [{\"name\": \"<init>\", \"parameterTypes\": []}]}");
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : indexed.entrySet()) {
+            json.append(",\n  {\"name\": \"").append(processingEnv.getElementUtils().getBinaryName(entry.getKey())).append("\", \"methods\": [");
+            boolean first = true;
+            for (ExecutableElement method : entry.getValue()) {
+                if (!first) {
+                    json.append(", ");
+                }
+                first = false;
+                json.append("{\"name\": \"").append(method.getSimpleName()).append("\", \"parameterTypes\": [\"")
+                        .append(binaryName(erasure(method.getParameters().get(0)))).append("\"]}");
+            }
+            json.append("]}");
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    private boolean isIndexable(TypeElement type, List<ExecutableElement> methods, String indexPackage) {
+        if (!isAccessible(type, indexPackage)) {
+            return false;
+        }
+        for (ExecutableElement method : methods) {
+            if (!isAccessible(erasure(method.getParameters().get(0)), indexPackage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAccessible(TypeMirror type, String indexPackage) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType(), indexPackage);
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return isAccessible((TypeElement) ((DeclaredType) type).asElement(), indexPackage);
+        }
+        return type.getKind().isPrimitive();
+    }
+
+    /**
+     * 索引类中能否通过类字面量引用该类型
+     */
+    private boolean isAccessible(TypeElement type, String indexPackage) {
+        boolean samePackage = isInPackage(type, indexPackage);
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            NestingKind nestingKind = ((TypeElement) element).getNestingKind();
+            if (nestingKind == NestingKind.LOCAL || nestingKind == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) && !samePackage) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isInPackage(Element element, String packageName) {
+        return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    }
+
+    private TypeMirror erasure(VariableElement parameter) {
+        return processingEnv.getTypeUtils().erasure(parameter.asType());
+    }
+
+    private String binaryName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return binaryName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+        }
+        return type.toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private void note(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+}